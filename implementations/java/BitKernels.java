@@ -0,0 +1,78 @@
+// Word-level bit kernels for packed chromosomes in the Java One-Max GA
+// The scalar kernels always work; a Vector API implementation (vector/VectorBitKernels.java)
+// is used when requested with -Dga.kernels=vector and jdk.incubator.vector is enabled.
+
+public interface BitKernels {
+    
+    BitKernels SCALAR = new Scalar();
+    
+    /**
+     * Kernels used by packed individuals, chosen once per JVM so that call
+     * sites see a single implementation. Scalar by default, since HotSpot
+     * already compiles Long.bitCount to a POPCNT instruction; set
+     * -Dga.kernels=vector to use the Vector API kernels.
+     */
+    BitKernels ACTIVE = select(System.getProperty("ga.kernels", "scalar"));
+    
+    /**
+     * Number of set bits in words[from, to).
+     */
+    int popcount(long[] words, int from, int to);
+    
+    /**
+     * Mask-driven crossover of `count` words, each genome addressed by its
+     * array and starting offset and the mask starting at mask[0]: where a
+     * mask bit is set, child1 takes the gene from parent1 and child2 from
+     * parent2; elsewhere the parents are swapped. Children must not overlap
+     * the parents.
+     */
+    void maskedCrossover(long[] parent1, int offset1, long[] parent2, int offset2, long[] mask,
+                         long[] child1, int childOffset1, long[] child2, int childOffset2, int count);
+    
+    String name();
+    
+    private static BitKernels select(String requested) {
+        if (!requested.equals("vector")) {
+            return SCALAR;
+        }
+        try {
+            return (BitKernels) Class.forName("VectorBitKernels").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            // Not compiled, or started without --add-modules jdk.incubator.vector
+            System.err.println("Vector bit kernels unavailable (" + e + "), using scalar kernels");
+            return SCALAR;
+        }
+    }
+    
+    final class Scalar implements BitKernels {
+        
+        private Scalar() {
+        }
+        
+        @Override
+        public int popcount(long[] words, int from, int to) {
+            int count = 0;
+            for (int w = from; w < to; w++) {
+                count += Long.bitCount(words[w]);
+            }
+            return count;
+        }
+        
+        @Override
+        public void maskedCrossover(long[] parent1, int offset1, long[] parent2, int offset2, long[] mask,
+                                    long[] child1, int childOffset1, long[] child2, int childOffset2, int count) {
+            for (int w = 0; w < count; w++) {
+                long word1 = parent1[offset1 + w];
+                long word2 = parent2[offset2 + w];
+                long m = mask[w];
+                child1[childOffset1 + w] = (word1 & m) | (word2 & ~m);
+                child2[childOffset2 + w] = (word2 & m) | (word1 & ~m);
+            }
+        }
+        
+        @Override
+        public String name() {
+            return "scalar";
+        }
+    }
+}
@@ -0,0 +1,301 @@
+// Memory-mapped population snapshots for the Java One-Max GA
+// A snapshot is copied straight into a mapped file: no serialization, and
+// after a crash or redeploy the OS page cache still holds the latest one.
+// Two slots alternate so that a snapshot torn by a crash never replaces the
+// previous complete one, and a checksum over each slot tells a torn slot
+// from a complete one even when the OS wrote its pages back out of order.
+
+import java.io.IOException;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+public final class Checkpoint implements AutoCloseable {
+    // "GACKPT02"; read back in the wrong byte order it does not match
+    private static final long MAGIC = 0x4741434B50543032L;
+    private static final int HEADER_BYTES = 128;
+    
+    // Header layout: the configuration a resumed run must share with the
+    // original to reproduce it, written once when the file is created
+    private static final int HEADER_POPULATION = 8;
+    private static final int HEADER_LENGTH = 12;
+    private static final int HEADER_SEED = 16;
+    private static final int HEADER_CROSSOVER_RATE = 24;
+    private static final int HEADER_MUTATION_RATE = 32;
+    private static final int HEADER_TOURNAMENT = 40;
+    private static final int HEADER_CROSSOVER_POINTS = 44;
+    private static final int HEADER_BREEDING_WORKERS = 48;
+    private static final int HEADER_REPRESENTATION = 52;
+    private static final int HEADER_MUTATION_MODE = 53;
+    private static final int HEADER_CROSSOVER_MODE = 54;
+    private static final int HEADER_SEEDED = 55;
+    private static final int HEADER_ALGORITHM_LENGTH = 63;
+    private static final int HEADER_ALGORITHM = 64;
+    
+    // Slot layout: generation (0 while empty or being written), checksum of
+    // the rest of the slot and the generation, stream seed, fitnesses padded
+    // to a whole number of longs, then packed genome rows
+    private static final int SLOT_GENERATION = 0;
+    private static final int SLOT_CHECKSUM = 8;
+    private static final int SLOT_SEED = 16;
+    private static final int SLOT_FITNESSES = 24;
+    
+    private final Path file;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int populationSize;
+    private final int slotBytes;
+    private final int wordsOffset;
+    
+    // Slot last written or restored; the next save overwrites the other one
+    private int lastSlot = 1;
+    
+    // Restored by load()
+    private int generation;
+    private long streamSeed;
+    
+    private Checkpoint(Path file, GAConfig config, boolean create) throws IOException {
+        int populationSize = config.populationSize();
+        int chromosomeLength = config.chromosomeLength();
+        int fitnessBytes = (populationSize * Integer.BYTES + 7) & ~7;
+        long wordBytes = (long) populationSize * OneMaxGA.Individual.wordCount(chromosomeLength) * Long.BYTES;
+        long slotBytes = SLOT_FITNESSES + fitnessBytes + wordBytes;
+        long fileBytes = HEADER_BYTES + 2 * slotBytes;
+        if (fileBytes > Integer.MAX_VALUE) {
+            // A single MappedByteBuffer addresses at most 2 GiB
+            throw new IllegalArgumentException("Population too large to checkpoint: " + fileBytes + " bytes");
+        }
+        byte[] algorithm = config.randomAlgorithm().getBytes(StandardCharsets.US_ASCII);
+        if (algorithm.length > HEADER_BYTES - HEADER_ALGORITHM) {
+            throw new IllegalArgumentException("Random algorithm name too long to checkpoint: "
+                    + config.randomAlgorithm());
+        }
+        this.file = file;
+        this.populationSize = populationSize;
+        this.slotBytes = (int) slotBytes;
+        this.wordsOffset = SLOT_FITNESSES + fitnessBytes;
+        
+        if (create) {
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                                            StandardOpenOption.READ, StandardOpenOption.WRITE);
+        } else {
+            this.channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            if (channel.size() != fileBytes) {
+                channel.close();
+                throw new IllegalArgumentException("Checkpoint " + file + " does not match population "
+                        + populationSize + " x " + chromosomeLength);
+            }
+        }
+        // Native order so that bulk copies of long[] rows need no byte swapping
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileBytes);
+        buffer.order(ByteOrder.nativeOrder());
+        
+        if (create) {
+            buffer.putLong(0, MAGIC);
+            buffer.putInt(HEADER_POPULATION, populationSize);
+            buffer.putInt(HEADER_LENGTH, chromosomeLength);
+            buffer.putLong(HEADER_SEED, config.isSeeded() ? config.seed() : 0);
+            buffer.putDouble(HEADER_CROSSOVER_RATE, config.crossoverRate());
+            buffer.putDouble(HEADER_MUTATION_RATE, config.mutationRate());
+            buffer.putInt(HEADER_TOURNAMENT, config.tournamentSize());
+            buffer.putInt(HEADER_CROSSOVER_POINTS, kPoints(config));
+            buffer.putInt(HEADER_BREEDING_WORKERS, config.breedingWorkers());
+            buffer.put(HEADER_REPRESENTATION, (byte) config.representation().ordinal());
+            buffer.put(HEADER_MUTATION_MODE, (byte) config.mutationMode().ordinal());
+            buffer.put(HEADER_CROSSOVER_MODE, (byte) config.crossoverMode().ordinal());
+            buffer.put(HEADER_SEEDED, (byte) (config.isSeeded() ? 1 : 0));
+            buffer.put(HEADER_ALGORITHM_LENGTH, (byte) algorithm.length);
+            buffer.put(HEADER_ALGORITHM, algorithm);
+        } else {
+            checkHeader(config);
+        }
+    }
+    
+    /**
+     * Fail unless the header was written for the given configuration.
+     */
+    private void checkHeader(GAConfig config) throws IOException {
+        if (buffer.getLong(0) != MAGIC || buffer.getInt(HEADER_POPULATION) != config.populationSize()
+                || buffer.getInt(HEADER_LENGTH) != config.chromosomeLength()) {
+            channel.close();
+            throw new IllegalArgumentException("Checkpoint " + file + " does not match population "
+                    + config.populationSize() + " x " + config.chromosomeLength());
+        }
+        int algorithmLength = Math.min(buffer.get(HEADER_ALGORITHM_LENGTH) & 0xFF, HEADER_BYTES - HEADER_ALGORITHM);
+        byte[] algorithm = new byte[algorithmLength];
+        buffer.get(HEADER_ALGORITHM, algorithm);
+        requireHeader("seed", buffer.get(HEADER_SEEDED) != 0 ? buffer.getLong(HEADER_SEED) : "none",
+                      config.isSeeded() ? config.seed() : "none");
+        requireHeader("random algorithm", new String(algorithm, StandardCharsets.US_ASCII),
+                      config.randomAlgorithm());
+        requireHeader("crossover rate", buffer.getDouble(HEADER_CROSSOVER_RATE), config.crossoverRate());
+        requireHeader("mutation rate", buffer.getDouble(HEADER_MUTATION_RATE), config.mutationRate());
+        requireHeader("tournament size", buffer.getInt(HEADER_TOURNAMENT), config.tournamentSize());
+        requireHeader("representation", nameOf(OneMaxGA.Representation.values(), HEADER_REPRESENTATION),
+                      config.representation().name());
+        requireHeader("mutation mode", nameOf(OneMaxGA.MutationMode.values(), HEADER_MUTATION_MODE),
+                      config.mutationMode().name());
+        requireHeader("crossover mode", nameOf(OneMaxGA.CrossoverMode.values(), HEADER_CROSSOVER_MODE),
+                      config.crossoverMode().name());
+        requireHeader("crossover points", buffer.getInt(HEADER_CROSSOVER_POINTS), kPoints(config));
+        requireHeader("breeding workers", buffer.getInt(HEADER_BREEDING_WORKERS), config.breedingWorkers());
+    }
+    
+    private void requireHeader(String field, Object written, Object configured) throws IOException {
+        if (!written.equals(configured)) {
+            channel.close();
+            throw new IllegalArgumentException("Checkpoint " + file + " was written with " + field + " "
+                    + written + ", not " + configured);
+        }
+    }
+    
+    // Crossover points only take part in K_POINT crossover
+    private static int kPoints(GAConfig config) {
+        return config.crossoverMode() == OneMaxGA.CrossoverMode.K_POINT ? config.crossoverPoints() : 0;
+    }
+    
+    private String nameOf(Enum<?>[] values, int offset) {
+        int ordinal = buffer.get(offset);
+        return ordinal >= 0 && ordinal < values.length ? values[ordinal].name() : "#" + ordinal;
+    }
+    
+    /**
+     * New, empty checkpoint file for runs of the given configuration,
+     * replacing any existing file.
+     */
+    public static Checkpoint create(Path file, GAConfig config) throws IOException {
+        return new Checkpoint(file, config, true);
+    }
+    
+    /**
+     * Existing checkpoint file, which must have been created for the same
+     * population shape, seed, random algorithm, rates, operators and number
+     * of breeding workers; the generation limit may differ.
+     */
+    public static Checkpoint open(Path file, GAConfig config) throws IOException {
+        return new Checkpoint(file, config, false);
+    }
+    
+    private int slotOffset(int slot) {
+        return HEADER_BYTES + slot * slotBytes;
+    }
+    
+    private int slotGeneration(int slot) {
+        return (int) buffer.getLong(slotOffset(slot) + SLOT_GENERATION);
+    }
+    
+    /**
+     * CRC32C of everything in the slot after the checksum, with the
+     * generation in the upper half so that it is bound to the body.
+     */
+    private long checksum(int base, int generation) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(base + SLOT_SEED, slotBytes - SLOT_SEED));
+        return crc.getValue() ^ ((long) generation << 32);
+    }
+    
+    /**
+     * Whether the slot holds a snapshot that was written completely.
+     */
+    private boolean isComplete(int slot) {
+        int generation = slotGeneration(slot);
+        int base = slotOffset(slot);
+        return generation != 0 && buffer.getLong(base + SLOT_CHECKSUM) == checksum(base, generation);
+    }
+    
+    /**
+     * Slot of the latest complete snapshot, or -1. A newer snapshot that
+     * fails its checksum, because it was torn by a crash, is skipped in
+     * favour of the older one.
+     */
+    private int latestCompleteSlot() {
+        int newer = slotGeneration(0) >= slotGeneration(1) ? 0 : 1;
+        return isComplete(newer) ? newer : isComplete(1 - newer) ? 1 - newer : -1;
+    }
+    
+    /**
+     * Generation of the snapshot load() would restore, or 0 when no
+     * snapshot is complete.
+     */
+    public int latestGeneration() {
+        int slot = latestCompleteSlot();
+        return slot < 0 ? 0 : slotGeneration(slot);
+    }
+    
+    /**
+     * Snapshot the first populationSize rows of a population and their
+     * fitnesses, taken at the start of `generation` (at least 1), together
+     * with the seed the engine derives its streams from. Overwrites the slot
+     * not written or restored last.
+     */
+    public void save(Population population, int generation, long streamSeed) {
+        GAEvents.Checkpoint event = GAEvents.beginCheckpoint();
+        int slot = 1 - lastSlot;
+        int base = slotOffset(slot);
+        
+        // Invalidate the slot first, and publish the generation only after the body
+        buffer.putLong(base + SLOT_GENERATION, 0);
+        VarHandle.storeStoreFence();
+        buffer.putLong(base + SLOT_SEED, streamSeed);
+        buffer.position(base + SLOT_FITNESSES);
+        buffer.asIntBuffer().put(population.fitnesses(), 0, populationSize);
+        buffer.position(base + wordsOffset);
+        population.writeRows(0, populationSize, buffer.asLongBuffer());
+        buffer.putLong(base + SLOT_CHECKSUM, checksum(base, generation));
+        VarHandle.storeStoreFence();
+        buffer.putLong(base + SLOT_GENERATION, generation);
+        lastSlot = slot;
+        GAEvents.commit(event, generation, slotBytes, false);
+    }
+    
+    /**
+     * Restore the latest complete snapshot into the first populationSize rows
+     * of a population. Returns false when no snapshot is complete.
+     */
+    public boolean load(Population population) {
+        GAEvents.Checkpoint event = GAEvents.beginCheckpoint();
+        int slot = latestCompleteSlot();
+        if (slot < 0) {
+            return false;
+        }
+        
+        int base = slotOffset(slot);
+        generation = slotGeneration(slot);
+        streamSeed = buffer.getLong(base + SLOT_SEED);
+        buffer.position(base + SLOT_FITNESSES);
+        buffer.asIntBuffer().get(population.fitnesses(), 0, populationSize);
+        buffer.position(base + wordsOffset);
+        population.readRows(0, populationSize, buffer.asLongBuffer());
+        lastSlot = slot;
+        GAEvents.commit(event, generation, slotBytes, true);
+        return true;
+    }
+    
+    /**
+     * Generation of the snapshot restored by load().
+     */
+    public int generation() {
+        return generation;
+    }
+    
+    /**
+     * Stream seed of the snapshot restored by load().
+     */
+    public long streamSeed() {
+        return streamSeed;
+    }
+    
+    /**
+     * Close the file. Snapshots written so far stay in the page cache and
+     * reach the disk without an explicit flush.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
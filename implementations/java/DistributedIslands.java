@@ -0,0 +1,497 @@
+// Multi-process island model for the Java One-Max GA
+// Each process evolves one population and exchanges migrants with its
+// neighbours over loopback TCP. Sockets are non-blocking and migration is
+// batched: one frame per neighbour per migration carries the packed rows and
+// fitnesses of all emigrants. The launcher starts one JVM per island, so the
+// whole model runs on a single machine.
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.LockSupport;
+import java.util.random.RandomGenerator;
+
+public final class DistributedIslands {
+    static final int DEFAULT_PORT = 47100;
+    private static final long CONNECT_TIMEOUT_MILLIS = 30_000;
+    // Time a finished island keeps sending buffered migrants to slow neighbours
+    private static final long DRAIN_TIMEOUT_MILLIS = 5_000;
+    
+    // Frame: total bytes, kind, generation, migrant count, then the migrants'
+    // fitnesses and their packed rows
+    private static final int HEADER_BYTES = 16;
+    private static final int MIGRANTS = 1;
+    // Sent by the island that reaches the optimum and forwarded by every receiver
+    private static final int STOP = 2;
+    
+    // Frames a link buffers before new batches are dropped
+    private static final int FRAMES_PER_LINK = 4;
+    
+    // Island outcome reported to the launcher
+    private static final int LIMIT_REACHED = 0;
+    private static final int SOLVED = 1;
+    private static final int STOPPED = 2;
+    
+    private final GAEngine engine;
+    private final List<Link> outgoing;
+    private final List<Link> incoming;
+    private final int stride;
+    private final int maxGenerations;
+    private final int migrationInterval;
+    private final int optimumFitness;
+    private final int[] emigrants;
+    private final int[] immigrants;
+    private boolean stopSent;
+    
+    private DistributedIslands(GAEngine engine, List<Link> outgoing, List<Link> incoming) {
+        GAConfig config = engine.config();
+        this.engine = engine;
+        this.outgoing = outgoing;
+        this.incoming = incoming;
+        this.stride = OneMaxGA.Individual.wordCount(config.chromosomeLength());
+        this.maxGenerations = config.maxGenerations();
+        this.migrationInterval = config.migrationInterval();
+        this.optimumFitness = config.fitnessFunction().optimum(config.chromosomeLength());
+        this.emigrants = new int[config.migrants()];
+        this.immigrants = new int[config.migrants() * incoming.size()];
+    }
+    
+    // One connection to a neighbour with its send or receive buffer
+    private static final class Link {
+        private final SocketChannel channel;
+        private final ByteBuffer buffer;
+        private boolean open = true;
+        
+        Link(SocketChannel channel, int frameBytes) throws IOException {
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocateDirect(FRAMES_PER_LINK * frameBytes);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            channel.configureBlocking(false);
+        }
+        
+        /**
+         * Write as much pending data as the socket accepts without blocking.
+         */
+        void flush() {
+            if (!open) return;
+            try {
+                buffer.flip();
+                channel.write(buffer);
+                buffer.compact();
+            } catch (IOException e) {
+                // The neighbour has finished and closed its end
+                close();
+            }
+        }
+        
+        /**
+         * Read whatever has arrived without blocking.
+         */
+        void fill() {
+            if (!open) return;
+            try {
+                if (channel.read(buffer) < 0) close();
+            } catch (IOException e) {
+                close();
+            }
+        }
+        
+        void close() {
+            open = false;
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // Nothing left to release
+            }
+        }
+    }
+    
+    private static int frameBytes(int count, int stride) {
+        return HEADER_BYTES + count * (Integer.BYTES + stride * Long.BYTES);
+    }
+    
+    /**
+     * Islands receiving migrants from island `from` out of `islands`.
+     */
+    private static List<Integer> neighbours(IslandModel.Topology topology, int from, int islands) {
+        List<Integer> targets = new ArrayList<>();
+        for (int to = 0; to < islands; to++) {
+            boolean edge = topology == IslandModel.Topology.RING ? to == (from + 1) % islands : to != from;
+            if (edge) targets.add(to);
+        }
+        return targets;
+    }
+    
+    /**
+     * Run island `island` of `islands` in this process. Island k listens on
+     * port + k, connects to the islands it sends to, and accepts one
+     * connection from each island it receives from.
+     * Returns array with [generations, bestFitness, outcome].
+     */
+    public static int[] runIsland(GAConfig config, int island, int islands, int port) throws IOException {
+        if (config.islands() != 1) {
+            throw new IllegalArgumentException("Each process runs one island: " + config.islands());
+        }
+        IslandModel.Topology topology = config.topology();
+        List<Integer> targets = neighbours(topology, island, islands);
+        int sources = topology == IslandModel.Topology.RING ? 1 : islands - 1;
+        if ((long) config.migrants() * (sources + 1) > config.populationSize()) {
+            throw new IllegalArgumentException("Migrants must be between 0 and "
+                    + config.populationSize() / (sources + 1) + ": " + config.migrants());
+        }
+        int stride = OneMaxGA.Individual.wordCount(config.chromosomeLength());
+        int frameBytes = frameBytes(config.migrants(), stride);
+        
+        // Every process splits the same streams and keeps its own
+        RandomGenerator random = RandomStreams.split(config.newRandom(), islands)[island];
+        InetAddress loopback = InetAddress.getLoopbackAddress();
+        List<Link> outgoing = new ArrayList<>();
+        List<Link> incoming = new ArrayList<>();
+        try (ServerSocketChannel server = ServerSocketChannel.open()) {
+            server.bind(new InetSocketAddress(loopback, port + island));
+            // Connections complete in the neighbours' backlog, so connecting
+            // before accepting cannot deadlock
+            long deadline = System.currentTimeMillis() + CONNECT_TIMEOUT_MILLIS;
+            for (int target : targets) {
+                outgoing.add(new Link(connect(new InetSocketAddress(loopback, port + target), deadline), frameBytes));
+            }
+            server.configureBlocking(false);
+            for (int k = 0; k < sources; k++) {
+                incoming.add(new Link(accept(server, deadline), frameBytes));
+            }
+            
+            ForkJoinPool pool = GAEngine.newStagePool(config);
+            try (GAEngine engine = new GAEngine(config, random)) {
+                return new DistributedIslands(engine.withConfiguredStages(pool), outgoing, incoming).evolve();
+            } finally {
+                if (pool != null) pool.shutdown();
+            }
+        } finally {
+            // Stop reading first: a neighbour draining into this island then
+            // fails fast instead of waiting on a reader that has finished
+            for (Link link : incoming) {
+                link.close();
+            }
+            long deadline = System.currentTimeMillis() + DRAIN_TIMEOUT_MILLIS;
+            for (Link link : outgoing) {
+                drain(link, deadline);
+            }
+        }
+    }
+    
+    private static SocketChannel connect(InetSocketAddress address, long deadline) throws IOException {
+        while (true) {
+            SocketChannel channel = SocketChannel.open();
+            try {
+                channel.connect(address);
+                return channel;
+            } catch (ConnectException e) {
+                // The neighbour's JVM may not be listening yet
+                channel.close();
+                if (System.currentTimeMillis() > deadline) throw e;
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while connecting to " + address);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Accept one neighbour's connection, giving up at the deadline so that an
+     * island whose neighbour failed to start does not wait forever.
+     */
+    private static SocketChannel accept(ServerSocketChannel server, long deadline) throws IOException {
+        while (true) {
+            SocketChannel channel = server.accept();
+            if (channel != null) return channel;
+            if (System.currentTimeMillis() > deadline) {
+                throw new SocketTimeoutException("No neighbour connected to " + server.getLocalAddress());
+            }
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException interrupted) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while accepting on " + server.getLocalAddress());
+            }
+        }
+    }
+    
+    /**
+     * Send whatever is still buffered before closing an outgoing link, giving
+     * up at the deadline if the neighbour has stopped reading.
+     */
+    private static void drain(Link link, long deadline) {
+        if (!link.open) return;
+        try {
+            link.buffer.flip();
+            while (link.buffer.hasRemaining() && System.currentTimeMillis() < deadline) {
+                if (link.channel.write(link.buffer) == 0) {
+                    // Socket buffer full; wait for the neighbour to read
+                    LockSupport.parkNanos(1_000_000);
+                }
+            }
+        } catch (IOException ignored) {
+            // The neighbour has already finished
+        }
+        link.close();
+    }
+    
+    private int[] evolve() {
+        engine.initializePopulation();
+        for (int generation = 1; generation <= maxGenerations; generation++) {
+            GAEvents.Generation event = GAEvents.beginGeneration();
+            int maxFitness = engine.evaluate();
+            if (maxFitness >= optimumFitness) {
+                engine.commitGeneration(event, generation, maxFitness);
+                sendStop(generation);
+                return new int[]{generation, maxFitness, SOLVED};
+            }
+            if (generation % migrationInterval == 0 && migrate(generation)) {
+                engine.commitGeneration(event, generation, maxFitness);
+                return new int[]{generation, maxFitness, STOPPED};
+            }
+            engine.advance();
+            engine.commitGeneration(event, generation, maxFitness);
+        }
+        GAEvents.Generation event = GAEvents.beginGeneration();
+        int maxFitness = engine.evaluate();
+        engine.commitGeneration(event, maxGenerations + 1, maxFitness);
+        return new int[]{maxGenerations, maxFitness, LIMIT_REACHED};
+    }
+    
+    /**
+     * Queue this generation's emigrants for every neighbour, then take up to
+     * one batch from each neighbour into the weakest rows.
+     * Returns true when a neighbour reported that the optimum was reached.
+     */
+    private boolean migrate(int generation) {
+        GAEvents.Migration event = GAEvents.beginMigration();
+        Population population = engine.population();
+        int size = engine.config().populationSize();
+        int[] fitnesses = population.fitnesses();
+        
+        int sent = 0;
+        int dropped = 0;
+        if (emigrants.length > 0) {
+            IslandModel.selectRows(fitnesses, size, emigrants, true);
+            int bytes = frameBytes(emigrants.length, stride);
+            for (Link link : outgoing) {
+                ByteBuffer out = link.buffer;
+                if (out.remaining() < bytes) link.flush();
+                // Still full: the neighbour is behind, so this batch is dropped
+                if (!link.open || out.remaining() < bytes) {
+                    dropped += emigrants.length;
+                    continue;
+                }
+                out.putInt(bytes).putInt(MIGRANTS).putInt(generation).putInt(emigrants.length);
+                for (int row : emigrants) {
+                    out.putInt(fitnesses[row]);
+                }
+                LongBuffer rows = out.asLongBuffer();
+                for (int row : emigrants) {
+                    population.writeRow(row, rows);
+                }
+                out.position(out.position() + emigrants.length * stride * Long.BYTES);
+                link.flush();
+                sent += emigrants.length;
+            }
+        }
+        
+        if (immigrants.length > 0) {
+            IslandModel.selectRows(fitnesses, size, immigrants, false);
+        }
+        int next = 0;
+        boolean stop = false;
+        for (Link link : incoming) {
+            link.fill();
+            ByteBuffer in = link.buffer;
+            in.flip();
+            boolean batchTaken = false;
+            // Start of the first batch left queued for the next migration; the
+            // frames behind it are still scanned so a STOP is never missed
+            int queued = -1;
+            while (in.remaining() >= HEADER_BYTES && in.remaining() >= in.getInt(in.position())) {
+                int start = in.position();
+                int bytes = in.getInt(start);
+                int kind = in.getInt(start + 4);
+                if (kind == STOP) {
+                    stop = true;
+                    sendStop(in.getInt(start + 8));
+                } else if (batchTaken) {
+                    if (queued < 0) queued = start;
+                } else {
+                    int count = in.getInt(start + 12);
+                    LongBuffer rows = in.position(start + HEADER_BYTES + count * Integer.BYTES).asLongBuffer();
+                    for (int k = 0; k < count && next < immigrants.length; k++) {
+                        int row = immigrants[next++];
+                        rows.position(k * stride);
+                        population.readRow(row, rows);
+                        fitnesses[row] = in.getInt(start + HEADER_BYTES + k * Integer.BYTES);
+                    }
+                    batchTaken = true;
+                }
+                in.position(start + bytes);
+            }
+            if (queued >= 0) in.position(queued);
+            in.compact();
+        }
+        GAEvents.commit(event, generation, sent, dropped, next);
+        return stop;
+    }
+    
+    /**
+     * Tell every neighbour to stop, once; receivers forward the message so it
+     * reaches all islands of a ring.
+     */
+    private void sendStop(int generation) {
+        if (stopSent) return;
+        stopSent = true;
+        for (Link link : outgoing) {
+            ByteBuffer out = link.buffer;
+            if (out.remaining() < HEADER_BYTES) link.flush();
+            if (!link.open || out.remaining() < HEADER_BYTES) continue;
+            out.putInt(HEADER_BYTES).putInt(STOP).putInt(generation).putInt(0);
+            link.flush();
+        }
+    }
+    
+    /**
+     * Start one JVM per island with the same classpath and GA arguments, wait
+     * for all of them and combine their results. Fails, stopping the others,
+     * as soon as one island exits with an error.
+     * Returns array with [generations, bestFitness]: the first generation at
+     * which an island reached the optimum, or the generation limit.
+     */
+    public static int[] launch(int islands, int port, List<String> configArguments)
+            throws IOException, InterruptedException {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        List<Process> processes = new ArrayList<>();
+        // Killing the launcher must not leave the island JVMs running
+        Thread reaper = new Thread(() -> ProcessHandle.current().children().forEach(ProcessHandle::destroyForcibly));
+        Runtime.getRuntime().addShutdownHook(reaper);
+        try {
+            for (int island = 0; island < islands; island++) {
+                List<String> command = new ArrayList<>(List.of(java, "-cp", System.getProperty("java.class.path"),
+                        "DistributedIslands", "--island", String.valueOf(island),
+                        "--processes", String.valueOf(islands), "--port", String.valueOf(port)));
+                command.addAll(configArguments);
+                processes.add(new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start());
+            }
+            
+            // A failed island leaves its neighbours waiting for a connection,
+            // so watch all of them and give up as soon as one exits with an error
+            boolean running = true;
+            while (running) {
+                running = false;
+                for (int island = 0; island < islands; island++) {
+                    Process process = processes.get(island);
+                    if (process.isAlive()) {
+                        running = true;
+                    } else if (process.exitValue() != 0) {
+                        throw new IllegalStateException("Island " + island + " failed with exit code " + process.exitValue());
+                    }
+                }
+                if (running) Thread.sleep(20);
+            }
+            
+            int solvedGeneration = Integer.MAX_VALUE;
+            int generations = 0;
+            int best = Integer.MIN_VALUE;
+            for (int island = 0; island < islands; island++) {
+                Process process = processes.get(island);
+                String line;
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+                    line = reader.readLine();
+                }
+                if (line == null) {
+                    throw new IllegalStateException("Island " + island + " exited without a result");
+                }
+                System.out.println("Island " + island + ": " + line);
+                // "<generations> <bestFitness> <outcome>"
+                String[] fields = line.trim().split(" ");
+                int islandGenerations = Integer.parseInt(fields[0]);
+                best = Math.max(best, Integer.parseInt(fields[1]));
+                generations = Math.max(generations, islandGenerations);
+                if (Integer.parseInt(fields[2]) == SOLVED) {
+                    solvedGeneration = Math.min(solvedGeneration, islandGenerations);
+                }
+            }
+            return new int[]{solvedGeneration != Integer.MAX_VALUE ? solvedGeneration : generations, best};
+        } finally {
+            for (Process process : processes) {
+                process.destroyForcibly();
+            }
+            try {
+                Runtime.getRuntime().removeShutdownHook(reaper);
+            } catch (IllegalStateException ignored) {
+                // Already shutting down, and the hook is doing the same work
+            }
+        }
+    }
+    
+    /**
+     * Usage: java DistributedIslands --processes N [--port P] [RunTests GA flags]
+     * Launches N island processes on ports P..P+N-1 (default 47100) and prints
+     * the combined result. Topology, migration interval and migrants are taken
+     * from the GA flags. Island processes are started with --island K.
+     */
+    public static void main(String[] args) throws Exception {
+        GAConfig.Builder builder = GAConfig.builder();
+        List<String> configArguments = new ArrayList<>();
+        int islands = 0;
+        int island = -1;
+        int port = DEFAULT_PORT;
+        
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--processes":
+                    islands = Integer.parseInt(args[++i]);
+                    break;
+                case "--island":
+                    island = Integer.parseInt(args[++i]);
+                    break;
+                case "--port":
+                    port = Integer.parseInt(args[++i]);
+                    break;
+                default:
+                    int last = RunTests.parseConfigArgument(args, i, builder);
+                    configArguments.addAll(List.of(args).subList(i, last + 1));
+                    i = last;
+            }
+        }
+        if (islands < 2) {
+            throw new IllegalArgumentException("Distributed islands need at least 2 processes: " + islands);
+        }
+        GAConfig config = builder.build();
+        
+        if (island >= 0) {
+            int[] result = runIsland(config, island, islands, port);
+            System.out.println(result[0] + " " + result[1] + " " + result[2]);
+            return;
+        }
+        
+        System.out.println("Configuration: " + config);
+        long startTime = System.nanoTime();
+        int[] result = launch(islands, port, configArguments);
+        double elapsed = (System.nanoTime() - startTime) / 1_000_000.0;
+        System.out.println("Distributed islands: " + islands + " processes, generations " + result[0]
+                + ", best fitness " + result[1] + ", " + String.format("%.3f", elapsed) + " ms");
+    }
+}
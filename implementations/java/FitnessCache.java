@@ -0,0 +1,123 @@
+// Bounded fitness memoization for the Java One-Max GA
+// Maps 64-bit genome hashes to fitness values so that duplicate genomes,
+// common in converged populations, are not re-scored by expensive objectives.
+
+import java.util.concurrent.atomic.LongAdder;
+
+public final class FitnessCache {
+    // Returned by get() when the hash is not cached
+    public static final long MISS = Long.MIN_VALUE;
+    
+    // Entries per set; a set is scanned linearly and evicts by CLOCK
+    private static final int WAYS = 8;
+    private static final int LOCK_STRIPES = 64;
+    
+    private static final byte VALID = 1;
+    private static final byte REFERENCED = 2;
+    
+    private final int setMask;
+    private final long[] keys;
+    private final int[] values;
+    private final byte[] flags;
+    private final byte[] hands;
+    private final Object[] locks;
+    
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    
+    /**
+     * Cache holding at least `capacity` entries, rounded up to a power-of-two
+     * number of WAYS-entry sets.
+     */
+    public FitnessCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Cache capacity must be positive: " + capacity);
+        }
+        int wanted = (capacity + WAYS - 1) / WAYS;
+        int sets = wanted == 1 ? 1 : Integer.highestOneBit(wanted - 1) << 1;
+        this.setMask = sets - 1;
+        this.keys = new long[sets * WAYS];
+        this.values = new int[sets * WAYS];
+        this.flags = new byte[sets * WAYS];
+        this.hands = new byte[sets];
+        this.locks = new Object[Math.min(LOCK_STRIPES, sets)];
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new Object();
+        }
+    }
+    
+    public int capacity() {
+        return keys.length;
+    }
+    
+    public long hits() {
+        return hits.sum();
+    }
+    
+    public long misses() {
+        return misses.sum();
+    }
+    
+    private int setOf(long hash) {
+        // High bits pick the set so that hashes differing only in low bits spread out
+        return (int) (hash >>> 32 ^ hash) & setMask;
+    }
+    
+    private Object lockFor(int set) {
+        return locks[set % locks.length];
+    }
+    
+    /**
+     * Cached fitness for the genome hash, or MISS.
+     */
+    public long get(long hash) {
+        int set = setOf(hash);
+        int base = set * WAYS;
+        synchronized (lockFor(set)) {
+            for (int slot = base; slot < base + WAYS; slot++) {
+                if ((flags[slot] & VALID) != 0 && keys[slot] == hash) {
+                    flags[slot] |= REFERENCED;
+                    hits.increment();
+                    return values[slot];
+                }
+            }
+        }
+        misses.increment();
+        return MISS;
+    }
+    
+    /**
+     * Cache a fitness value. When the set is full the CLOCK hand sweeps it,
+     * clearing reference bits, and replaces the first unreferenced entry.
+     */
+    public void put(long hash, int fitness) {
+        int set = setOf(hash);
+        int base = set * WAYS;
+        synchronized (lockFor(set)) {
+            int free = -1;
+            for (int slot = base; slot < base + WAYS; slot++) {
+                if ((flags[slot] & VALID) == 0) {
+                    if (free < 0) free = slot;
+                } else if (keys[slot] == hash) {
+                    values[slot] = fitness;
+                    flags[slot] |= REFERENCED;
+                    return;
+                }
+            }
+            
+            if (free < 0) {
+                int hand = hands[set];
+                while ((flags[base + hand] & REFERENCED) != 0) {
+                    flags[base + hand] &= ~REFERENCED;
+                    hand = (hand + 1) % WAYS;
+                }
+                free = base + hand;
+                hands[set] = (byte) ((hand + 1) % WAYS);
+            }
+            
+            keys[free] = hash;
+            values[free] = fitness;
+            flags[free] = VALID;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+// Fitness functions for the Java One-Max GA
+// The engine scores populations in bulk so objectives can amortize setup
+// across a slice; OneMax keeps a specialized bit-count implementation.
+
+public interface FitnessFunction {
+    
+    /**
+     * The count-of-ones objective used by the benchmark.
+     */
+    FitnessFunction ONE_MAX = new OneMax();
+    
+    /**
+     * Score one row of a population. Implementations must be thread-safe,
+     * since parallel evaluation scores disjoint slices concurrently.
+     */
+    int evaluate(Population population, int row);
+    
+    /**
+     * Score rows [from, to) of a population into fitnesses[from, to).
+     * Override to amortize per-call setup or to process the slice as a batch.
+     */
+    default void evaluate(Population population, int from, int to, int[] fitnesses) {
+        for (int row = from; row < to; row++) {
+            fitnesses[row] = evaluate(population, row);
+        }
+    }
+    
+    /**
+     * Best attainable fitness for the given chromosome length; the run stops
+     * as soon as it is reached. Integer.MAX_VALUE means the optimum is unknown.
+     */
+    default int optimum(int chromosomeLength) {
+        return Integer.MAX_VALUE;
+    }
+    
+    /**
+     * True when fitness is exactly the number of set genes, so that operators
+     * can track it by delta instead of re-scoring (incremental fitness).
+     */
+    default boolean isCountOfOnes() {
+        return false;
+    }
+    
+    /**
+     * Number of set genes, computed by the representation's own bit count.
+     * The batch is handed to the population's bulk count, so the engine makes
+     * one call per slice rather than one per individual.
+     */
+    final class OneMax implements FitnessFunction {
+        
+        private OneMax() {
+        }
+        
+        @Override
+        public int evaluate(Population population, int row) {
+            return population.countOnes(row);
+        }
+        
+        @Override
+        public void evaluate(Population population, int from, int to, int[] fitnesses) {
+            population.countOnes(from, to, fitnesses);
+        }
+        
+        @Override
+        public int optimum(int chromosomeLength) {
+            return chromosomeLength;
+        }
+        
+        @Override
+        public boolean isCountOfOnes() {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,473 @@
+// Immutable run configuration for the Java One-Max GA
+// Defaults match the shared GA parameters in OneMaxGA.
+
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGeneratorFactory;
+
+public final class GAConfig {
+    private final int populationSize;
+    private final int chromosomeLength;
+    private final int maxGenerations;
+    private final double crossoverRate;
+    private final double mutationRate;
+    private final int tournamentSize;
+    private final OneMaxGA.Representation representation;
+    private final OneMaxGA.MutationMode mutationMode;
+    private final OneMaxGA.CrossoverMode crossoverMode;
+    private final int crossoverPoints;
+    private final FitnessFunction fitnessFunction;
+    private final int fitnessCacheSize;
+    private final boolean incrementalFitness;
+    private final int fitnessVerifyInterval;
+    private final int islands;
+    private final IslandModel.Topology topology;
+    private final int migrationInterval;
+    private final int migrants;
+    private final int evaluationThreads;
+    private final int evaluationThreshold;
+    private final int breedingWorkers;
+    private final int traceCapacity;
+    private final boolean metrics;
+    private final String randomAlgorithm;
+    private final boolean seeded;
+    private final long seed;
+    
+    private GAConfig(Builder builder) {
+        this.populationSize = builder.populationSize;
+        this.chromosomeLength = builder.chromosomeLength;
+        this.maxGenerations = builder.maxGenerations;
+        this.crossoverRate = builder.crossoverRate;
+        this.mutationRate = builder.mutationRate;
+        this.tournamentSize = builder.tournamentSize;
+        this.representation = builder.representation;
+        this.mutationMode = builder.mutationMode;
+        this.crossoverMode = builder.crossoverMode;
+        this.crossoverPoints = builder.crossoverPoints;
+        this.fitnessFunction = builder.fitnessFunction;
+        this.fitnessCacheSize = builder.fitnessCacheSize;
+        this.incrementalFitness = builder.incrementalFitness;
+        this.fitnessVerifyInterval = builder.fitnessVerifyInterval;
+        this.islands = builder.islands;
+        this.topology = builder.topology;
+        this.migrationInterval = builder.migrationInterval;
+        this.migrants = builder.migrants;
+        this.evaluationThreads = builder.evaluationThreads;
+        this.evaluationThreshold = builder.evaluationThreshold;
+        this.breedingWorkers = builder.breedingWorkers;
+        this.traceCapacity = builder.traceCapacity;
+        this.metrics = builder.metrics;
+        this.randomAlgorithm = builder.randomAlgorithm;
+        this.seeded = builder.seeded;
+        this.seed = builder.seed;
+    }
+    
+    /**
+     * Configuration with every parameter at its default.
+     */
+    public static GAConfig defaults() {
+        return builder().build();
+    }
+    
+    public static Builder builder() {
+        return new Builder();
+    }
+    
+    /**
+     * Builder initialized from this configuration, for deriving variants.
+     */
+    public Builder toBuilder() {
+        Builder builder = new Builder();
+        builder.populationSize = populationSize;
+        builder.chromosomeLength = chromosomeLength;
+        builder.maxGenerations = maxGenerations;
+        builder.crossoverRate = crossoverRate;
+        builder.mutationRate = mutationRate;
+        builder.tournamentSize = tournamentSize;
+        builder.representation = representation;
+        builder.mutationMode = mutationMode;
+        builder.crossoverMode = crossoverMode;
+        builder.crossoverPoints = crossoverPoints;
+        builder.fitnessFunction = fitnessFunction;
+        builder.fitnessCacheSize = fitnessCacheSize;
+        builder.incrementalFitness = incrementalFitness;
+        builder.fitnessVerifyInterval = fitnessVerifyInterval;
+        builder.islands = islands;
+        builder.topology = topology;
+        builder.migrationInterval = migrationInterval;
+        builder.migrants = migrants;
+        builder.evaluationThreads = evaluationThreads;
+        builder.evaluationThreshold = evaluationThreshold;
+        builder.breedingWorkers = breedingWorkers;
+        builder.traceCapacity = traceCapacity;
+        builder.metrics = metrics;
+        builder.randomAlgorithm = randomAlgorithm;
+        builder.seeded = seeded;
+        builder.seed = seed;
+        return builder;
+    }
+    
+    /**
+     * Create the generator for one run: seeded when a seed was configured,
+     * otherwise seeded from the default entropy source.
+     */
+    public RandomGenerator newRandom() {
+        RandomGeneratorFactory<RandomGenerator> factory = RandomGeneratorFactory.of(randomAlgorithm);
+        return seeded ? factory.create(seed) : factory.create();
+    }
+    
+    /**
+     * Create a generator of the configured algorithm with an explicit seed.
+     */
+    public RandomGenerator newRandom(long seed) {
+        return RandomGeneratorFactory.<RandomGenerator>of(randomAlgorithm).create(seed);
+    }
+    
+    public int populationSize() { return populationSize; }
+    public int chromosomeLength() { return chromosomeLength; }
+    public int maxGenerations() { return maxGenerations; }
+    public double crossoverRate() { return crossoverRate; }
+    public double mutationRate() { return mutationRate; }
+    public int tournamentSize() { return tournamentSize; }
+    public OneMaxGA.Representation representation() { return representation; }
+    public OneMaxGA.MutationMode mutationMode() { return mutationMode; }
+    public OneMaxGA.CrossoverMode crossoverMode() { return crossoverMode; }
+    public int crossoverPoints() { return crossoverPoints; }
+    public FitnessFunction fitnessFunction() { return fitnessFunction; }
+    public int fitnessCacheSize() { return fitnessCacheSize; }
+    public boolean incrementalFitness() { return incrementalFitness; }
+    public int fitnessVerifyInterval() { return fitnessVerifyInterval; }
+    public int islands() { return islands; }
+    public IslandModel.Topology topology() { return topology; }
+    public int migrationInterval() { return migrationInterval; }
+    public int migrants() { return migrants; }
+    public int evaluationThreads() { return evaluationThreads; }
+    public int evaluationThreshold() { return evaluationThreshold; }
+    public int breedingWorkers() { return breedingWorkers; }
+    public int traceCapacity() { return traceCapacity; }
+    public boolean metrics() { return metrics; }
+    public String randomAlgorithm() { return randomAlgorithm; }
+    public boolean isSeeded() { return seeded; }
+    public long seed() { return seed; }
+    
+    @Override
+    public String toString() {
+        return "population=" + populationSize
+                + ", length=" + chromosomeLength
+                + ", generations=" + maxGenerations
+                + ", crossover=" + crossoverRate
+                + ", mutation=" + mutationRate
+                + ", tournament=" + tournamentSize
+                + ", genes=" + representation.name().toLowerCase()
+                + ", mutationMode=" + mutationMode.name().toLowerCase()
+                + ", crossoverMode=" + crossoverMode.name().toLowerCase()
+                + (crossoverMode == OneMaxGA.CrossoverMode.K_POINT ? " (" + crossoverPoints + " points)" : "")
+                + (fitnessCacheSize > 0 ? ", fitnessCache=" + fitnessCacheSize : "")
+                + (incrementalFitness ? ", incremental (verify every " + fitnessVerifyInterval + ")" : "")
+                + (islands > 1 ? ", islands=" + islands + " (" + topology.name().toLowerCase()
+                        + ", " + migrants + " migrants every " + migrationInterval + ")" : "")
+                + (evaluationThreads > 0 ? ", evaluation=" + evaluationThreads + " threads (slices of "
+                        + evaluationThreshold + ")" : "")
+                + (breedingWorkers > 0 ? ", breeding=" + breedingWorkers + " workers" : "")
+                + (traceCapacity != OneMaxGA.TRACE_CAPACITY ? ", trace=" + traceCapacity : "")
+                + (metrics ? ", jmx" : "")
+                + ", rng=" + randomAlgorithm
+                + (seeded ? ", seed=" + seed : "");
+    }
+    
+    public static final class Builder {
+        private int populationSize = OneMaxGA.POPULATION_SIZE;
+        private int chromosomeLength = OneMaxGA.CHROMOSOME_LENGTH;
+        private int maxGenerations = OneMaxGA.MAX_GENERATIONS;
+        private double crossoverRate = OneMaxGA.CROSSOVER_RATE;
+        private double mutationRate = OneMaxGA.MUTATION_RATE;
+        private int tournamentSize = OneMaxGA.TOURNAMENT_SIZE;
+        private OneMaxGA.Representation representation = OneMaxGA.DEFAULT_REPRESENTATION;
+        private OneMaxGA.MutationMode mutationMode = OneMaxGA.DEFAULT_MUTATION_MODE;
+        private OneMaxGA.CrossoverMode crossoverMode = OneMaxGA.DEFAULT_CROSSOVER_MODE;
+        private int crossoverPoints = OneMaxGA.CROSSOVER_POINTS;
+        private FitnessFunction fitnessFunction = FitnessFunction.ONE_MAX;
+        private int fitnessCacheSize;
+        private boolean incrementalFitness;
+        private int fitnessVerifyInterval;
+        private int islands = 1;
+        private IslandModel.Topology topology = IslandModel.Topology.RING;
+        private int migrationInterval = OneMaxGA.MIGRATION_INTERVAL;
+        private int migrants = OneMaxGA.MIGRANTS;
+        private int evaluationThreads;
+        private int evaluationThreshold = OneMaxGA.EVALUATION_THRESHOLD;
+        private int breedingWorkers;
+        private int traceCapacity = OneMaxGA.TRACE_CAPACITY;
+        private boolean metrics;
+        private String randomAlgorithm = OneMaxGA.DEFAULT_RANDOM_ALGORITHM;
+        private boolean seeded;
+        private long seed;
+        
+        private Builder() {
+        }
+        
+        public Builder populationSize(int populationSize) {
+            this.populationSize = populationSize;
+            return this;
+        }
+        
+        public Builder chromosomeLength(int chromosomeLength) {
+            this.chromosomeLength = chromosomeLength;
+            return this;
+        }
+        
+        public Builder maxGenerations(int maxGenerations) {
+            this.maxGenerations = maxGenerations;
+            return this;
+        }
+        
+        public Builder crossoverRate(double crossoverRate) {
+            this.crossoverRate = crossoverRate;
+            return this;
+        }
+        
+        public Builder mutationRate(double mutationRate) {
+            this.mutationRate = mutationRate;
+            return this;
+        }
+        
+        public Builder tournamentSize(int tournamentSize) {
+            this.tournamentSize = tournamentSize;
+            return this;
+        }
+        
+        public Builder representation(OneMaxGA.Representation representation) {
+            this.representation = representation;
+            return this;
+        }
+        
+        public Builder mutationMode(OneMaxGA.MutationMode mutationMode) {
+            this.mutationMode = mutationMode;
+            return this;
+        }
+        
+        public Builder crossoverMode(OneMaxGA.CrossoverMode crossoverMode) {
+            this.crossoverMode = crossoverMode;
+            return this;
+        }
+        
+        /**
+         * Number of crossover points of K_POINT crossover.
+         */
+        public Builder crossoverPoints(int crossoverPoints) {
+            this.crossoverPoints = crossoverPoints;
+            return this;
+        }
+        
+        public Builder fitnessFunction(FitnessFunction fitnessFunction) {
+            this.fitnessFunction = fitnessFunction;
+            return this;
+        }
+        
+        /**
+         * Memoize fitness by genome hash in a cache of about this many
+         * entries; 0 disables the cache.
+         */
+        public Builder fitnessCacheSize(int fitnessCacheSize) {
+            this.fitnessCacheSize = fitnessCacheSize;
+            return this;
+        }
+        
+        /**
+         * Track fitness by delta through crossover and mutation instead of
+         * re-scoring every generation. Requires a count-of-ones objective.
+         */
+        public Builder incrementalFitness(boolean incrementalFitness) {
+            this.incrementalFitness = incrementalFitness;
+            return this;
+        }
+        
+        /**
+         * With incremental fitness, fully re-evaluate and compare every this
+         * many generations; 0 never verifies.
+         */
+        public Builder fitnessVerifyInterval(int fitnessVerifyInterval) {
+            this.fitnessVerifyInterval = fitnessVerifyInterval;
+            return this;
+        }
+        
+        /**
+         * Evolve this many sub-populations of populationSize each on their
+         * own threads (IslandModel); 1 runs a single population.
+         */
+        public Builder islands(int islands) {
+            this.islands = islands;
+            return this;
+        }
+        
+        public Builder topology(IslandModel.Topology topology) {
+            this.topology = topology;
+            return this;
+        }
+        
+        /**
+         * Islands exchange migrants every this many generations.
+         */
+        public Builder migrationInterval(int migrationInterval) {
+            this.migrationInterval = migrationInterval;
+            return this;
+        }
+        
+        /**
+         * Number of fittest individuals each island sends to each neighbour
+         * per migration; 0 disables migration.
+         */
+        public Builder migrants(int migrants) {
+            this.migrants = migrants;
+            return this;
+        }
+        
+        /**
+         * Evaluate fitness on a ForkJoinPool of this many threads; 0 keeps
+         * evaluation on the calling thread.
+         */
+        public Builder evaluationThreads(int evaluationThreads) {
+            this.evaluationThreads = evaluationThreads;
+            return this;
+        }
+        
+        /**
+         * With parallel evaluation, split the population into slices of at
+         * most this many individuals; populations no larger than this are
+         * scored on the calling thread.
+         */
+        public Builder evaluationThreshold(int evaluationThreshold) {
+            this.evaluationThreshold = evaluationThreshold;
+            return this;
+        }
+        
+        /**
+         * Breed each generation on a ForkJoinPool with this many workers, each
+         * owning a fixed slice of the offspring and its own RNG stream; 0
+         * breeds on the calling thread. Seeded runs are reproducible for a
+         * given number of workers.
+         */
+        public Builder breedingWorkers(int breedingWorkers) {
+            this.breedingWorkers = breedingWorkers;
+            return this;
+        }
+        
+        /**
+         * Keep the per-generation trace of GAResult for at most this many
+         * evaluations; later generations of longer runs are not traced, so
+         * the trace's memory stays bounded. 0 disables the trace.
+         */
+        public Builder traceCapacity(int traceCapacity) {
+            this.traceCapacity = traceCapacity;
+            return this;
+        }
+        
+        /**
+         * Register a GAMetrics MBean for every engine while it is open, so
+         * that throughput and fitness can be watched over JMX.
+         */
+        public Builder metrics(boolean metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+        
+        /**
+         * Name of a java.util.random algorithm, e.g. "Xoshiro256PlusPlus".
+         */
+        public Builder randomAlgorithm(String randomAlgorithm) {
+            this.randomAlgorithm = randomAlgorithm;
+            return this;
+        }
+        
+        /**
+         * Fix the seed so that runs are reproducible.
+         */
+        public Builder seed(long seed) {
+            this.seeded = true;
+            this.seed = seed;
+            return this;
+        }
+        
+        public GAConfig build() {
+            if (populationSize < 1) {
+                throw new IllegalArgumentException("Population size must be positive: " + populationSize);
+            }
+            if (chromosomeLength < 2) {
+                throw new IllegalArgumentException("Chromosome length must be at least 2: " + chromosomeLength);
+            }
+            // The evaluation after the limit is numbered maxGenerations + 1
+            if (maxGenerations < 1 || maxGenerations == Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Max generations must be between 1 and "
+                        + (Integer.MAX_VALUE - 1) + ": " + maxGenerations);
+            }
+            if (!(crossoverRate >= 0 && crossoverRate <= 1)) {
+                throw new IllegalArgumentException("Crossover rate must be in [0, 1]: " + crossoverRate);
+            }
+            if (!(mutationRate >= 0 && mutationRate <= 1)) {
+                throw new IllegalArgumentException("Mutation rate must be in [0, 1]: " + mutationRate);
+            }
+            if (representation == null || mutationMode == null || crossoverMode == null || fitnessFunction == null) {
+                throw new IllegalArgumentException(
+                        "Representation, mutation mode, crossover mode and fitness function are required");
+            }
+            // Points are distinct positions between genes, of which there are length - 1
+            if (crossoverMode == OneMaxGA.CrossoverMode.K_POINT
+                    && (crossoverPoints < 1 || crossoverPoints > chromosomeLength - 1)) {
+                throw new IllegalArgumentException("Crossover points must be between 1 and "
+                        + (chromosomeLength - 1) + ": " + crossoverPoints);
+            }
+            if (crossoverMode == OneMaxGA.CrossoverMode.TWO_POINT && chromosomeLength < 3) {
+                throw new IllegalArgumentException("Two-point crossover needs a chromosome length of at least 3: "
+                        + chromosomeLength);
+            }
+            if (traceCapacity < 0) {
+                throw new IllegalArgumentException("Trace capacity must not be negative: " + traceCapacity);
+            }
+            if (fitnessCacheSize < 0) {
+                throw new IllegalArgumentException("Fitness cache size must not be negative: " + fitnessCacheSize);
+            }
+            if (incrementalFitness && !fitnessFunction.isCountOfOnes()) {
+                throw new IllegalArgumentException("Incremental fitness requires a count-of-ones objective");
+            }
+            if (fitnessVerifyInterval < 0) {
+                throw new IllegalArgumentException("Verify interval must not be negative: " + fitnessVerifyInterval);
+            }
+            if (tournamentSize < 1) {
+                throw new IllegalArgumentException("Tournament size must be positive: " + tournamentSize);
+            }
+            if (islands < 1) {
+                throw new IllegalArgumentException("Island count must be positive: " + islands);
+            }
+            if (topology == null) {
+                throw new IllegalArgumentException("Migration topology is required");
+            }
+            if (migrationInterval < 1) {
+                throw new IllegalArgumentException("Migration interval must be positive: " + migrationInterval);
+            }
+            // Emigrants and the rows replaced by immigrants must not overlap
+            int neighbours = topology == IslandModel.Topology.RING ? 1 : islands - 1;
+            if (migrants < 0 || (islands > 1 && (long) migrants * (neighbours + 1) > populationSize)) {
+                throw new IllegalArgumentException("Migrants must be between 0 and "
+                        + populationSize / (neighbours + 1) + ": " + migrants);
+            }
+            if (evaluationThreads < 0) {
+                throw new IllegalArgumentException("Evaluation threads must not be negative: " + evaluationThreads);
+            }
+            if (evaluationThreshold < 1) {
+                throw new IllegalArgumentException("Evaluation threshold must be positive: " + evaluationThreshold);
+            }
+            int pairs = (populationSize + 1) / 2;
+            if (breedingWorkers < 0 || breedingWorkers > pairs) {
+                throw new IllegalArgumentException("Breeding workers must be between 0 and " + pairs + ": "
+                        + breedingWorkers);
+            }
+            // Islands already evolve on threads of their own
+            if (islands > 1 && (evaluationThreads > 0 || breedingWorkers > 0)) {
+                throw new IllegalArgumentException("Parallel evaluation and breeding apply to a single population: "
+                        + islands + " islands");
+            }
+            // Fails fast on unknown algorithm names
+            RandomGeneratorFactory.of(randomAlgorithm);
+            return new GAConfig(this);
+        }
+    }
+}
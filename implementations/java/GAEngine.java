@@ -0,0 +1,907 @@
+// Generation engine for the Java One-Max GA
+// Owns two preallocated population buffers and swaps them every generation,
+// so the generation loop does not allocate once the engine is constructed.
+// Individuals are addressed by row, whatever the population's storage layout.
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.random.RandomGenerator;
+
+public final class GAEngine implements AutoCloseable {
+    private final GAConfig config;
+    
+    // Configuration copied into final fields so the hot loops read constants
+    private final OneMaxGA.Representation representation;
+    private final OneMaxGA.MutationMode mutationMode;
+    private final OneMaxGA.CrossoverMode crossoverMode;
+    private final int populationSize;
+    private final int chromosomeLength;
+    private final int maxGenerations;
+    private final double crossoverRate;
+    private final double mutationRate;
+    private final int tournamentSize;
+    private final FitnessFunction fitnessFunction;
+    private final int optimumFitness;
+    
+    // Optional memoization of fitness by genome hash; null when disabled
+    private final FitnessCache fitnessCache;
+    
+    // Stream used by the generation loop; workers get their own via splitStreams
+    private RandomGenerator random;
+    
+    // log(1 - mutationRate), the scale of the geometric gap between flipped genes
+    private final double logMutationSurvival;
+    
+    // Mask and point buffers for breeding on the calling thread; workers own theirs
+    private final CrossoverScratch scratch;
+    
+    // Returned by crossover when the children were blended through a mask
+    static final int MASKED = -1;
+    
+    // Population buffers: offspring of `current` are written into `next`
+    private Population current;
+    private Population next;
+    
+    // Row receiving the unused second child when the population size is odd
+    private final int spareRow;
+    
+    // Fitness arrays of the current and next buffers, swapped with them
+    private int[] fitnesses;
+    private int[] nextFitnesses;
+    
+    // Incremental mode: breeding writes child fitness by delta into nextFitnesses,
+    // so only the first generation and periodic verifications score genomes
+    private final boolean incrementalFitness;
+    private final int fitnessVerifyInterval;
+    private final int[] verificationFitnesses;
+    private boolean fitnessesTracked;
+    private int generationsSinceVerify;
+    
+    // Parallel evaluation stage; a null pool keeps evaluation sequential
+    private ForkJoinPool evaluationPool;
+    private int evaluationThreshold = Integer.MAX_VALUE;
+    
+    // Parallel breeding stage; a null pool keeps breeding on the calling thread
+    private ForkJoinPool breedingPool;
+    private BreedingStage breedingStage;
+    
+    // Periodic snapshots; generator state cannot be saved, so while
+    // checkpointing every stream is re-derived each generation from streamSeed
+    private Checkpoint checkpoint;
+    private int checkpointInterval;
+    private long streamSeed;
+    
+    // Generation a resumed run continues from; 0 starts a fresh run
+    private int resumeGeneration;
+    
+    // JMX metrics registered for this engine; null unless configured
+    private final GAMetrics metrics;
+    
+    // Minimum and mean fitness found by the last evaluate()
+    private int minFitness;
+    private double meanFitness;
+    
+    // Per-generation trace of run(), one entry per evaluation up to traceCapacity
+    private final int traceCapacity;
+    private final int[] traceBest;
+    private final double[] traceMean;
+    private final int[] traceMin;
+    private final long[] traceNanos;
+    
+    /**
+     * Engine drawing from a new generator created by the configuration.
+     */
+    public GAEngine(GAConfig config) {
+        this(config, config.newRandom());
+    }
+    
+    /**
+     * Engine drawing from the given generator, which the engine then owns.
+     */
+    public GAEngine(GAConfig config, RandomGenerator random) {
+        this.config = config;
+        this.representation = config.representation();
+        this.mutationMode = config.mutationMode();
+        this.crossoverMode = config.crossoverMode();
+        this.populationSize = config.populationSize();
+        this.chromosomeLength = config.chromosomeLength();
+        this.maxGenerations = config.maxGenerations();
+        this.crossoverRate = config.crossoverRate();
+        this.mutationRate = config.mutationRate();
+        this.tournamentSize = config.tournamentSize();
+        this.fitnessFunction = config.fitnessFunction();
+        this.optimumFitness = fitnessFunction.optimum(chromosomeLength);
+        this.fitnessCache = config.fitnessCacheSize() > 0 ? new FitnessCache(config.fitnessCacheSize()) : null;
+        this.random = random;
+        this.logMutationSurvival = Math.log1p(-mutationRate);
+        this.scratch = new CrossoverScratch();
+        // An odd population gets one extra row for the spare child
+        this.spareRow = populationSize;
+        int rows = populationSize + (populationSize & 1);
+        this.current = Population.create(representation, rows, chromosomeLength);
+        this.next = Population.create(representation, rows, chromosomeLength);
+        this.fitnesses = current.fitnesses();
+        this.nextFitnesses = next.fitnesses();
+        this.incrementalFitness = config.incrementalFitness();
+        this.fitnessVerifyInterval = config.fitnessVerifyInterval();
+        this.verificationFitnesses = incrementalFitness && fitnessVerifyInterval > 0 ? new int[populationSize] : null;
+        // The final evaluation after the generation limit takes the extra entry
+        this.traceCapacity = (int) Math.min(maxGenerations + 1L, config.traceCapacity());
+        this.traceBest = new int[traceCapacity];
+        this.traceMean = new double[traceCapacity];
+        this.traceMin = new int[traceCapacity];
+        this.traceNanos = new long[traceCapacity];
+        // Registered last, so a failed construction leaves no MBean behind
+        this.metrics = config.metrics() ? GAMetrics.register() : null;
+    }
+    
+    public GAConfig config() {
+        return config;
+    }
+    
+    /**
+     * Evaluate fitness on the given pool whenever the population is larger than
+     * the threshold. Slices of at most `threshold` individuals are scored
+     * sequentially by a single task.
+     */
+    public GAEngine withParallelEvaluation(ForkJoinPool pool, int threshold) {
+        if (threshold < 1) {
+            throw new IllegalArgumentException("Evaluation threshold must be positive: " + threshold);
+        }
+        this.evaluationPool = pool;
+        this.evaluationThreshold = threshold;
+        return this;
+    }
+    
+    /**
+     * Pool for the parallel stages configured by `config`, or null when every
+     * stage runs on the calling thread. The caller shuts it down after
+     * closing the engine.
+     */
+    static ForkJoinPool newStagePool(GAConfig config) {
+        int parallelism = Math.max(config.evaluationThreads(), config.breedingWorkers());
+        return parallelism > 0 ? new ForkJoinPool(parallelism) : null;
+    }
+    
+    /**
+     * Run the stages that the engine's configuration makes parallel on the
+     * given pool, created by newStagePool for the same configuration.
+     */
+    GAEngine withConfiguredStages(ForkJoinPool pool) {
+        if (config.evaluationThreads() > 0) {
+            withParallelEvaluation(pool, config.evaluationThreshold());
+        }
+        if (config.breedingWorkers() > 0) {
+            withParallelBreeding(pool, config.breedingWorkers());
+        }
+        return this;
+    }
+    
+    /**
+     * Breed the next generation on the given pool with a fixed number of
+     * workers. Each worker owns a disjoint, pair-aligned slice of the next
+     * buffer and its own RNG stream split from the engine's generator.
+     */
+    public GAEngine withParallelBreeding(ForkJoinPool pool, int workers) {
+        int pairs = (populationSize + 1) / 2;
+        if (workers < 1 || workers > pairs) {
+            throw new IllegalArgumentException("Breeding workers must be between 1 and " + pairs + ": " + workers);
+        }
+        RandomGenerator[] streams = splitStreams(workers);
+        BreedingTask[] tasks = new BreedingTask[workers];
+        for (int k = 0; k < workers; k++) {
+            int from = 2 * (int) ((long) pairs * k / workers);
+            int to = Math.min(2 * (int) ((long) pairs * (k + 1) / workers), populationSize);
+            tasks[k] = new BreedingTask(from, to, streams[k], new CrossoverScratch());
+        }
+        this.breedingPool = pool;
+        this.breedingStage = new BreedingStage(tasks);
+        return this;
+    }
+    
+    /**
+     * Snapshot the population into a memory-mapped file at the start of
+     * every `interval`-th generation, replacing any existing file. While
+     * checkpointing, the generator and worker streams are re-created every
+     * generation from a seed derived from the configured seed (or one drawn
+     * from the engine's generator) and the generation number, so that a
+     * resumed run continues exactly as the original would have.
+     */
+    public GAEngine withCheckpoint(Path file, int interval) throws IOException {
+        if (interval < 1) {
+            throw new IllegalArgumentException("Checkpoint interval must be positive: " + interval);
+        }
+        if (checkpoint != null) {
+            checkpoint.close();
+        }
+        this.checkpoint = Checkpoint.create(file, config);
+        this.checkpointInterval = interval;
+        this.streamSeed = config.isSeeded() ? config.seed() : random.nextLong();
+        return this;
+    }
+    
+    /**
+     * Engine continuing from the latest snapshot in a checkpoint file written
+     * by an engine with the same configuration, which the file's header
+     * checks. The generation limit may only grow: it must not fall below
+     * the snapshot's generation. The engine keeps checkpointing to the same
+     * file every `interval` generations, and run() reproduces the original
+     * run bit for bit.
+     */
+    public static GAEngine resume(GAConfig config, Path file, int interval) throws IOException {
+        if (interval < 1) {
+            throw new IllegalArgumentException("Checkpoint interval must be positive: " + interval);
+        }
+        // Opened first, so a mismatched file fails before anything needs closing
+        Checkpoint checkpoint = Checkpoint.open(file, config);
+        int generation = checkpoint.latestGeneration();
+        if (generation > config.maxGenerations()) {
+            checkpoint.close();
+            throw new IllegalArgumentException("Checkpoint " + file + " is at generation " + generation
+                    + ", past the generation limit: " + config.maxGenerations());
+        }
+        GAEngine engine;
+        try {
+            engine = new GAEngine(config);
+        } catch (RuntimeException e) {
+            checkpoint.close();
+            throw e;
+        }
+        if (!checkpoint.load(engine.current)) {
+            checkpoint.close();
+            engine.close();
+            throw new IllegalStateException("No complete snapshot in " + file);
+        }
+        engine.checkpoint = checkpoint;
+        engine.checkpointInterval = interval;
+        engine.streamSeed = checkpoint.streamSeed();
+        engine.resumeGeneration = checkpoint.generation();
+        // Restored fitnesses are exact; incremental mode carries them forward
+        engine.fitnessesTracked = engine.incrementalFitness;
+        return engine;
+    }
+    
+    /**
+     * Re-create the engine's generator and every breeding worker's stream
+     * for the given generation.
+     */
+    private void reseed(int generation) {
+        random = config.newRandom(derivedSeed(generation, 0));
+        if (breedingStage != null) {
+            for (int k = 0; k < breedingStage.tasks.length; k++) {
+                breedingStage.tasks[k].random = config.newRandom(derivedSeed(generation, k + 1));
+            }
+        }
+    }
+    
+    private long derivedSeed(int generation, int stream) {
+        // SplitMix64 finalizer over the stream seed, generation and stream index
+        long z = streamSeed + generation * 0x9E3779B97F4A7C15L + stream * 0xD1B54A32D192ED69L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+    
+    /**
+     * Split independent streams from the engine's generator, one per worker,
+     * so that workers never share RNG state.
+     */
+    RandomGenerator[] splitStreams(int count) {
+        return RandomStreams.split(random, count);
+    }
+    
+    /**
+     * Initialize the current buffer with a random population.
+     */
+    void initializePopulation() {
+        if (metrics != null) metrics.attachCurrentThread();
+        for (int i = 0; i < populationSize; i++) {
+            current.randomize(i, random);
+        }
+        fitnessesTracked = false;
+    }
+    
+    /**
+     * Evaluate fitness of the current buffer into the fitness array.
+     * Returns the best fitness found; the minimum and mean are kept for the trace.
+     */
+    int evaluate() {
+        if (fitnessesTracked) {
+            // Fitness was carried over from breeding; only verify it now and then
+            if (fitnessVerifyInterval > 0 && ++generationsSinceVerify >= fitnessVerifyInterval) {
+                verifyFitnesses();
+                generationsSinceVerify = 0;
+            }
+            if (metrics != null) metrics.addEvaluations(populationSize);
+        } else {
+            if (evaluationPool == null || populationSize <= evaluationThreshold) {
+                evaluateRange(0, populationSize);
+            } else {
+                evaluationPool.invoke(new EvaluationTask(0, populationSize));
+            }
+            fitnessesTracked = incrementalFitness;
+        }
+        
+        int maxFitness = Integer.MIN_VALUE;
+        int min = Integer.MAX_VALUE;
+        long sum = 0;
+        for (int i = 0; i < populationSize; i++) {
+            int fitness = fitnesses[i];
+            if (fitness > maxFitness) maxFitness = fitness;
+            if (fitness < min) min = fitness;
+            sum += fitness;
+        }
+        minFitness = min;
+        meanFitness = (double) sum / populationSize;
+        if (metrics != null) metrics.generationEvaluated(maxFitness, meanFitness);
+        return maxFitness;
+    }
+    
+    /**
+     * Evaluate fitness of rows [from, to) of the current buffer into the
+     * fitness array.
+     */
+    private void evaluateRange(int from, int to) {
+        GAEvents.EvaluationBatch event = GAEvents.beginEvaluationBatch();
+        if (metrics != null) metrics.batchStarted();
+        if (fitnessCache == null) {
+            fitnessFunction.evaluate(current, from, to, fitnesses);
+            finishEvaluationBatch(event, from, to);
+            return;
+        }
+        
+        // Consult the cache first; only genomes not seen recently are scored
+        for (int i = from; i < to; i++) {
+            long hash = current.genomeHash(i);
+            long cached = fitnessCache.get(hash);
+            if (cached != FitnessCache.MISS) {
+                fitnesses[i] = (int) cached;
+            } else {
+                int fitness = fitnessFunction.evaluate(current, i);
+                fitnessCache.put(hash, fitness);
+                fitnesses[i] = fitness;
+            }
+        }
+        finishEvaluationBatch(event, from, to);
+    }
+    
+    private void finishEvaluationBatch(GAEvents.EvaluationBatch event, int from, int to) {
+        if (metrics != null) {
+            metrics.addEvaluations(to - from);
+            metrics.batchFinished();
+        }
+        GAEvents.commit(event, from, to - from, false);
+    }
+    
+    /**
+     * Fully re-score the current buffer and check it against the fitness
+     * tracked by delta.
+     */
+    private void verifyFitnesses() {
+        GAEvents.EvaluationBatch event = GAEvents.beginEvaluationBatch();
+        fitnessFunction.evaluate(current, 0, populationSize, verificationFitnesses);
+        GAEvents.commit(event, 0, populationSize, true);
+        for (int i = 0; i < populationSize; i++) {
+            if (verificationFitnesses[i] != fitnesses[i]) {
+                throw new IllegalStateException("Incremental fitness of individual " + i + " is "
+                        + fitnesses[i] + " but evaluates to " + verificationFitnesses[i]);
+            }
+        }
+    }
+    
+    /**
+     * Fitness cache of this engine, or null when caching is disabled.
+     */
+    FitnessCache fitnessCache() {
+        return fitnessCache;
+    }
+    
+    /**
+     * Halves its slice of the population until it is no larger than the
+     * evaluation threshold. Slices are disjoint, so tasks write the shared
+     * fitness array without synchronization.
+     */
+    @SuppressWarnings("serial")
+    private final class EvaluationTask extends RecursiveAction {
+        private final int from;
+        private final int to;
+        
+        EvaluationTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+        
+        @Override
+        protected void compute() {
+            if (to - from <= evaluationThreshold) {
+                evaluateRange(from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new EvaluationTask(from, middle), new EvaluationTask(middle, to));
+        }
+    }
+    
+    /**
+     * Tournament selection with pre-computed fitnesses.
+     * Returns the index of the winner in the current buffer and fitness array.
+     */
+    int tournamentSelection(int tournamentSize, RandomGenerator random) {
+        int best = -1;
+        int bestFitness = Integer.MIN_VALUE;
+        
+        for (int i = 0; i < tournamentSize; i++) {
+            int candidateIndex = random.nextInt(populationSize);
+            int fitness = fitnesses[candidateIndex];
+            if (best < 0 || fitness > bestFitness) {
+                bestFitness = fitness;
+                best = candidateIndex;
+            }
+        }
+        
+        return best;
+    }
+    
+    /**
+     * Single-point crossover between two parent rows of the current buffer,
+     * read in place and written into two child rows of the next buffer.
+     * Returns the crossover point, or the chromosome length when the parents
+     * were copied unchanged.
+     */
+    int singlePointCrossover(int parent1, int parent2, int child1, int child2, RandomGenerator random) {
+        if (random.nextDouble() > crossoverRate) {
+            next.copyRow(child1, current, parent1);
+            next.copyRow(child2, current, parent2);
+            return chromosomeLength;
+        }
+        
+        int crossoverPoint = random.nextInt(chromosomeLength - 1) + 1;
+        current.crossoverInto(parent1, parent2, crossoverPoint, next, child1, child2);
+        return crossoverPoint;
+    }
+    
+    /**
+     * Uniform crossover: every gene comes from either parent with equal
+     * probability, decided 64 genes at a time by one random word of the mask.
+     * Returns MASKED, or the chromosome length when the parents were copied
+     * unchanged.
+     */
+    int uniformCrossover(int parent1, int parent2, int child1, int child2, RandomGenerator random, long[] mask) {
+        if (random.nextDouble() > crossoverRate) {
+            next.copyRow(child1, current, parent1);
+            next.copyRow(child2, current, parent2);
+            return chromosomeLength;
+        }
+        
+        for (int w = 0; w < mask.length; w++) {
+            mask[w] = random.nextLong();
+        }
+        current.maskedCrossoverInto(parent1, parent2, mask, next, child1, child2);
+        return MASKED;
+    }
+    
+    /**
+     * K-point crossover with k = points.length distinct random points: the
+     * children take alternate segments from each parent, starting with the
+     * first child's genes from parent1. Returns MASKED, or the chromosome
+     * length when the parents were copied unchanged.
+     */
+    int kPointCrossover(int parent1, int parent2, int child1, int child2, RandomGenerator random,
+                        long[] mask, int[] points) {
+        if (random.nextDouble() > crossoverRate) {
+            next.copyRow(child1, current, parent1);
+            next.copyRow(child2, current, parent2);
+            return chromosomeLength;
+        }
+        
+        drawCrossoverPoints(points, random);
+        segmentMask(points, mask);
+        current.maskedCrossoverInto(parent1, parent2, mask, next, child1, child2);
+        return MASKED;
+    }
+    
+    /**
+     * Fill `points` with k = points.length distinct crossover points in
+     * [1, chromosomeLength), in ascending order, uniformly among all such
+     * sets. Few points are drawn by Floyd's algorithm, one draw per point
+     * plus a sorted insertion; many points by selection sampling, one draw
+     * per candidate. Neither retries, so the cost is bounded for any k.
+     */
+    private void drawCrossoverPoints(int[] points, RandomGenerator random) {
+        int k = points.length;
+        int candidates = chromosomeLength - 1;
+        if ((long) k * k > 16L * candidates) {
+            // Keep each remaining candidate with probability needed / remaining
+            int needed = k;
+            for (int point = 1; needed > 0; point++) {
+                if (random.nextInt(candidates - point + 1) < needed) {
+                    points[k - needed] = point;
+                    needed--;
+                }
+            }
+            return;
+        }
+        
+        // Floyd: draw from [1, j]; a repeat takes j, which exceeds every point so far
+        int filled = 0;
+        for (int j = candidates - k + 1; j <= candidates; j++) {
+            int point = random.nextInt(j) + 1;
+            int at = Arrays.binarySearch(points, 0, filled, point);
+            if (at >= 0) {
+                points[filled++] = j;
+                continue;
+            }
+            int insertion = -at - 1;
+            System.arraycopy(points, insertion, points, insertion + 1, filled - insertion);
+            points[insertion] = point;
+            filled++;
+        }
+    }
+    
+    /**
+     * Mask selecting parent1 before the first of the ascending points and
+     * switching parents at every further point. Runs of words between points
+     * are filled whole; a word holding points flips its bits from each point
+     * upwards.
+     */
+    private static void segmentMask(int[] points, long[] mask) {
+        int filled = 0;
+        long fill = -1L;
+        for (int point : points) {
+            int pointWord = point >>> 6;
+            if (pointWord >= filled) {
+                Arrays.fill(mask, filled, pointWord + 1, fill);
+                filled = pointWord + 1;
+            }
+            // Shift distances are taken mod 64, so this flips bits from the point up
+            mask[pointWord] ^= -1L << point;
+            fill = ~fill;
+        }
+        Arrays.fill(mask, filled, mask.length, fill);
+    }
+    
+    /**
+     * Crossover by the configured mode. Returns the single crossover point,
+     * MASKED for mask-based modes, or the chromosome length when the parents
+     * were copied unchanged.
+     */
+    private int crossover(int parent1, int parent2, int child1, int child2, RandomGenerator random,
+                          CrossoverScratch scratch) {
+        switch (crossoverMode) {
+            case SINGLE_POINT:
+                return singlePointCrossover(parent1, parent2, child1, child2, random);
+            case UNIFORM:
+                return uniformCrossover(parent1, parent2, child1, child2, random, scratch.mask);
+            default:
+                return kPointCrossover(parent1, parent2, child1, child2, random, scratch.mask, scratch.points);
+        }
+    }
+    
+    /**
+     * Buffers of one breeding thread for the mask-based crossover modes.
+     */
+    private final class CrossoverScratch {
+        private final long[] mask = new long[OneMaxGA.Individual.wordCount(chromosomeLength)];
+        private final int[] points = new int[crossoverMode == OneMaxGA.CrossoverMode.K_POINT
+                ? config.crossoverPoints() : 2];
+    }
+    
+    /**
+     * Ones in the first `point` genes of a parent, counted over whichever side
+     * of the point is shorter.
+     */
+    private int onesBefore(int parent, int point) {
+        if (point <= chromosomeLength / 2) {
+            return current.countOnes(parent, 0, point);
+        }
+        return fitnesses[parent] - current.countOnes(parent, point, chromosomeLength);
+    }
+    
+    /**
+     * Mutate a row of the next buffer with specified mutation rate.
+     * Returns the change in the number of set genes.
+     */
+    int mutate(int child, double mutationRate, RandomGenerator random) {
+        if (mutationMode == OneMaxGA.MutationMode.GEOMETRIC) {
+            return mutateGeometric(child, random);
+        }
+        
+        int delta = 0;
+        for (int i = 0; i < chromosomeLength; i++) {
+            if (random.nextDouble() < mutationRate) {
+                delta += next.flipGene(child, i) ? 1 : -1;
+            }
+        }
+        return delta;
+    }
+    
+    /**
+     * Mutation by skip sampling. Each gene still flips independently with the
+     * mutation rate, but the number of genes skipped before the next flip is
+     * drawn from a geometric distribution, so only flipped genes cost a draw.
+     */
+    private int mutateGeometric(int child, RandomGenerator random) {
+        int delta = 0;
+        int position = -1;
+        while (true) {
+            // Inverse CDF of the geometric distribution; 1 - u lies in (0, 1]
+            double skip = Math.log(1.0 - random.nextDouble()) / logMutationSurvival;
+            // Negated so a zero mutation rate (NaN or infinite skip) also stops here
+            if (!(skip < chromosomeLength - 1 - position)) {
+                return delta;
+            }
+            position += 1 + (int) skip;
+            delta += next.flipGene(child, position) ? 1 : -1;
+        }
+    }
+    
+    /**
+     * Fill the next buffer with offspring of the current buffer.
+     */
+    private void breed() {
+        if (breedingPool == null) {
+            breedRange(0, populationSize, random, scratch);
+            return;
+        }
+        
+        // Tasks are reused every generation, so breeding in parallel allocates nothing either
+        breedingStage.reinitialize();
+        breedingPool.invoke(breedingStage);
+    }
+    
+    /**
+     * Fill rows [from, to) of the next buffer with offspring of the current
+     * buffer using the given stream. `from` must be even; the spare row takes
+     * the second child of a trailing odd slot.
+     */
+    private void breedRange(int from, int to, RandomGenerator random, CrossoverScratch scratch) {
+        GAEvents.BreedingBatch event = GAEvents.beginBreedingBatch();
+        if (metrics != null) metrics.batchStarted();
+        for (int i = from; i < to; i += 2) {
+            // Selection
+            int parent1 = tournamentSelection(tournamentSize, random);
+            int parent2 = tournamentSelection(tournamentSize, random);
+            
+            // Crossover straight into the next buffer
+            int child1 = i;
+            int child2 = i + 1 < to ? i + 1 : spareRow;
+            int crossoverPoint = crossover(parent1, parent2, child1, child2, random, scratch);
+            
+            // Mutation
+            int delta1 = mutate(child1, mutationRate, random);
+            int delta2 = mutate(child2, mutationRate, random);
+            
+            if (incrementalFitness && crossoverPoint == MASKED) {
+                // Blended children share no prefix with a parent, so count them afresh
+                nextFitnesses[i] = next.countOnes(child1);
+                if (i + 1 < to) {
+                    nextFitnesses[i + 1] = next.countOnes(child2);
+                }
+            } else if (incrementalFitness) {
+                // Each child keeps one parent's prefix and the other's suffix
+                int prefix1 = onesBefore(parent1, crossoverPoint);
+                int prefix2 = onesBefore(parent2, crossoverPoint);
+                nextFitnesses[i] = prefix1 + (fitnesses[parent2] - prefix2) + delta1;
+                if (i + 1 < to) {
+                    nextFitnesses[i + 1] = prefix2 + (fitnesses[parent1] - prefix1) + delta2;
+                }
+            }
+        }
+        if (metrics != null) metrics.batchFinished();
+        GAEvents.commit(event, from, to - from);
+    }
+    
+    /**
+     * Runs every worker's breeding task and waits for all of them.
+     */
+    @SuppressWarnings("serial")
+    private final class BreedingStage extends RecursiveAction {
+        private final BreedingTask[] tasks;
+        
+        BreedingStage(BreedingTask[] tasks) {
+            this.tasks = tasks;
+        }
+        
+        @Override
+        protected void compute() {
+            for (BreedingTask task : tasks) {
+                task.reinitialize();
+            }
+            invokeAll(tasks);
+        }
+    }
+    
+    /**
+     * One worker's share of breeding: a fixed, disjoint slice of the next
+     * buffer together with the worker's own RNG stream. Only the last slice
+     * can end on an odd slot and use the spare row. Parents are only read,
+     * so workers need no locks.
+     */
+    @SuppressWarnings("serial")
+    private final class BreedingTask extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private RandomGenerator random;
+        private final CrossoverScratch scratch;
+        
+        BreedingTask(int from, int to, RandomGenerator random, CrossoverScratch scratch) {
+            this.from = from;
+            this.to = to;
+            this.random = random;
+            this.scratch = scratch;
+        }
+        
+        @Override
+        protected void compute() {
+            breedRange(from, to, random, scratch);
+        }
+    }
+    
+    /**
+     * Exchange the current and next buffers.
+     */
+    private void swapBuffers() {
+        Population previous = current;
+        current = next;
+        next = previous;
+        
+        fitnesses = current.fitnesses();
+        nextFitnesses = next.fitnesses();
+    }
+    
+    /**
+     * Evolve the current population by one generation: evaluate, breed and
+     * swap buffers. Returns the best fitness of the evaluated generation.
+     */
+    int step() {
+        int maxFitness = evaluate();
+        advance();
+        return maxFitness;
+    }
+    
+    /**
+     * Breed the next generation from the evaluated current buffer and make
+     * it current.
+     */
+    void advance() {
+        breed();
+        swapBuffers();
+    }
+    
+    /**
+     * Commit a Generation event begun before the generation was evaluated,
+     * with the fitness statistics of the last evaluate().
+     */
+    void commitGeneration(GAEvents.Generation event, int generation, int maxFitness) {
+        GAEvents.commit(event, generation, maxFitness, meanFitness, minFitness);
+    }
+    
+    /**
+     * JMX metrics of this engine, or null when not configured.
+     */
+    public GAMetrics metrics() {
+        return metrics;
+    }
+    
+    /**
+     * The current buffer; its rows and fitnesses change with every swap.
+     */
+    Population population() {
+        return current;
+    }
+    
+    /**
+     * Run the GA to completion.
+     */
+    public GAResult run() {
+        return run(System.nanoTime());
+    }
+    
+    /**
+     * Run the GA to completion, timing it from `startNanos` so that callers
+     * can include engine construction in the elapsed time.
+     */
+    GAResult run(long startNanos) {
+        int breedingWorkers = breedingStage != null ? breedingStage.tasks.length : 0;
+        if (checkpoint != null && breedingWorkers != config.breedingWorkers()) {
+            // Worker streams are part of the run, so snapshots record the configured count
+            throw new IllegalStateException("Checkpointed runs must breed with the configured "
+                    + config.breedingWorkers() + " workers: " + breedingWorkers);
+        }
+        int firstGeneration = 1;
+        if (resumeGeneration > 0) {
+            if (metrics != null) metrics.attachCurrentThread();
+            firstGeneration = resumeGeneration;
+            resumeGeneration = 0;
+        } else {
+            if (checkpoint != null) reseed(0);
+            initializePopulation();
+        }
+        
+        for (int generation = firstGeneration; generation <= maxGenerations; generation++) {
+            GAEvents.Generation event = GAEvents.beginGeneration();
+            
+            // Evaluate fitness once per generation and check for optimal solution
+            int maxFitness = evaluate();
+            trace(generation - 1, maxFitness, startNanos);
+            if (maxFitness >= optimumFitness) {
+                commitGeneration(event, generation, maxFitness);
+                return result(generation, maxFitness, firstGeneration, generation, startNanos);
+            }
+            
+            if (checkpoint != null) {
+                if (generation % checkpointInterval == 0) {
+                    checkpoint.save(current, generation, streamSeed);
+                }
+                reseed(generation);
+            }
+            
+            breed();
+            swapBuffers();
+            commitGeneration(event, generation, maxFitness);
+        }
+        
+        // Final evaluation
+        GAEvents.Generation event = GAEvents.beginGeneration();
+        int finalMaxFitness = evaluate();
+        trace(maxGenerations, finalMaxFitness, startNanos);
+        commitGeneration(event, maxGenerations + 1, finalMaxFitness);
+        return result(maxGenerations, finalMaxFitness, firstGeneration, maxGenerations + 1, startNanos);
+    }
+    
+    private void trace(int index, int maxFitness, long startNanos) {
+        if (index >= traceCapacity) return;
+        traceBest[index] = maxFitness;
+        traceMean[index] = meanFitness;
+        traceMin[index] = minFitness;
+        traceNanos[index] = System.nanoTime() - startNanos;
+    }
+    
+    /**
+     * Copy the trace of evaluations [0, evaluated), as far as it was kept,
+     * into a result; entries before `firstGeneration` belong to a run this
+     * one resumed from.
+     */
+    private GAResult result(int generations, int bestFitness, int firstGeneration, int evaluated, long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        long evaluations = (long) (evaluated - (firstGeneration - 1)) * populationSize;
+        int traced = Math.min(evaluated, traceCapacity);
+        int inherited = Math.min(firstGeneration - 1, traced);
+        if (inherited > 0) {
+            Arrays.fill(traceBest, 0, inherited, 0);
+            Arrays.fill(traceMean, 0, inherited, 0);
+            Arrays.fill(traceMin, 0, inherited, 0);
+            Arrays.fill(traceNanos, 0, inherited, 0);
+        }
+        return new GAResult(generations, bestFitness, evaluations, elapsed,
+                            fitnessCache != null ? fitnessCache.hits() : 0,
+                            fitnessCache != null ? fitnessCache.misses() : 0,
+                            Arrays.copyOf(traceBest, traced), Arrays.copyOf(traceMean, traced),
+                            Arrays.copyOf(traceMin, traced), Arrays.copyOf(traceNanos, traced));
+    }
+    
+    /**
+     * Release the population buffers, which frees off-heap storage, close
+     * the checkpoint file and unregister the metrics MBean. The engine must
+     * not be used afterwards.
+     */
+    @Override
+    public void close() {
+        current.close();
+        next.close();
+        if (metrics != null) {
+            metrics.unregister();
+        }
+        if (checkpoint != null) {
+            try {
+                checkpoint.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,227 @@
+// JDK Flight Recorder events for the Java One-Max GA
+// GA phases appear on the same timeline as GC, safepoints and JIT activity in
+// a continuous recording. Per-phase events default to a 1 ms threshold; the
+// settings in onemax.jfc record every phase:
+//   -XX:StartFlightRecording:settings=default,settings=onemax.jfc
+// Until a recording is started, at launch or later with jcmd JFR.start, no
+// event is created and the event classes are not even loaded: registering
+// them with the recorder would add a few hundred milliseconds to the first run.
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+public final class GAEvents {
+    
+    private GAEvents() {
+    }
+    
+    /**
+     * One generation of an engine: evaluation, then breeding of the next
+     * generation, or only evaluation for the final one.
+     */
+    @Name("onemax.Generation")
+    @Label("GA Generation")
+    @Category("Genetic Algorithm")
+    @Description("Evaluation and breeding of one generation")
+    @Threshold("1 ms")
+    @StackTrace(false)
+    public static final class Generation extends Event {
+        @Label("Generation")
+        int generation;
+        
+        @Label("Best Fitness")
+        int bestFitness;
+        
+        @Label("Mean Fitness")
+        double meanFitness;
+        
+        @Label("Min Fitness")
+        int minFitness;
+    }
+    
+    /**
+     * Fitness evaluation of a contiguous slice of rows on one thread. Parallel
+     * evaluation emits one event per slice, on the thread that scored it.
+     */
+    @Name("onemax.EvaluationBatch")
+    @Label("GA Evaluation Batch")
+    @Category("Genetic Algorithm")
+    @Description("Fitness evaluation of a slice of the population")
+    @Threshold("1 ms")
+    @StackTrace(false)
+    public static final class EvaluationBatch extends Event {
+        @Label("First Row")
+        int firstRow;
+        
+        @Label("Rows")
+        int rows;
+        
+        @Label("Verification")
+        @Description("Re-scoring to check fitness tracked incrementally")
+        boolean verification;
+    }
+    
+    /**
+     * Selection, crossover and mutation of a contiguous slice of offspring
+     * rows on one thread. Parallel breeding emits one event per worker.
+     */
+    @Name("onemax.BreedingBatch")
+    @Label("GA Breeding Batch")
+    @Category("Genetic Algorithm")
+    @Description("Selection, crossover and mutation of a slice of the next generation")
+    @Threshold("1 ms")
+    @StackTrace(false)
+    public static final class BreedingBatch extends Event {
+        @Label("First Row")
+        int firstRow;
+        
+        @Label("Rows")
+        int rows;
+    }
+    
+    /**
+     * One island's exchange of migrants with its neighbours.
+     */
+    @Name("onemax.Migration")
+    @Label("GA Migration")
+    @Category("Genetic Algorithm")
+    @Description("Emigrants sent to and immigrants taken from neighbouring islands")
+    @StackTrace(false)
+    public static final class Migration extends Event {
+        @Label("Generation")
+        int generation;
+        
+        @Label("Emigrants Sent")
+        @Description("Rows queued for neighbours, counted once per neighbour")
+        int emigrants;
+        
+        @Label("Emigrants Dropped")
+        @Description("Rows not sent because a neighbour's channel was full")
+        int dropped;
+        
+        @Label("Immigrants Received")
+        int immigrants;
+    }
+    
+    /**
+     * A population snapshot saved to or restored from a checkpoint file.
+     */
+    @Name("onemax.Checkpoint")
+    @Label("GA Checkpoint")
+    @Category("Genetic Algorithm")
+    @Description("Population snapshot saved to or restored from a memory-mapped file")
+    @StackTrace(false)
+    public static final class Checkpoint extends Event {
+        @Label("Generation")
+        int generation;
+        
+        @Label("Snapshot Size")
+        @DataAmount
+        long bytes;
+        
+        @Label("Restored")
+        boolean restored;
+    }
+    
+    // Each beginX() returns a begun event, or null when no recording has been
+    // started; the matching commit() accepts null and writes the fields only
+    // when the event is enabled and over its threshold.
+    
+    static Generation beginGeneration() {
+        if (!FlightRecorder.isInitialized()) {
+            return null;
+        }
+        Generation event = new Generation();
+        event.begin();
+        return event;
+    }
+    
+    static void commit(Generation event, int generation, int bestFitness, double meanFitness, int minFitness) {
+        if (event != null && event.shouldCommit()) {
+            event.generation = generation;
+            event.bestFitness = bestFitness;
+            event.meanFitness = meanFitness;
+            event.minFitness = minFitness;
+            event.commit();
+        }
+    }
+    
+    static EvaluationBatch beginEvaluationBatch() {
+        if (!FlightRecorder.isInitialized()) {
+            return null;
+        }
+        EvaluationBatch event = new EvaluationBatch();
+        event.begin();
+        return event;
+    }
+    
+    static void commit(EvaluationBatch event, int firstRow, int rows, boolean verification) {
+        if (event != null && event.shouldCommit()) {
+            event.firstRow = firstRow;
+            event.rows = rows;
+            event.verification = verification;
+            event.commit();
+        }
+    }
+    
+    static BreedingBatch beginBreedingBatch() {
+        if (!FlightRecorder.isInitialized()) {
+            return null;
+        }
+        BreedingBatch event = new BreedingBatch();
+        event.begin();
+        return event;
+    }
+    
+    static void commit(BreedingBatch event, int firstRow, int rows) {
+        if (event != null && event.shouldCommit()) {
+            event.firstRow = firstRow;
+            event.rows = rows;
+            event.commit();
+        }
+    }
+    
+    static Migration beginMigration() {
+        if (!FlightRecorder.isInitialized()) {
+            return null;
+        }
+        Migration event = new Migration();
+        event.begin();
+        return event;
+    }
+    
+    static void commit(Migration event, int generation, int emigrants, int dropped, int immigrants) {
+        if (event != null && event.shouldCommit()) {
+            event.generation = generation;
+            event.emigrants = emigrants;
+            event.dropped = dropped;
+            event.immigrants = immigrants;
+            event.commit();
+        }
+    }
+    
+    static Checkpoint beginCheckpoint() {
+        if (!FlightRecorder.isInitialized()) {
+            return null;
+        }
+        Checkpoint event = new Checkpoint();
+        event.begin();
+        return event;
+    }
+    
+    static void commit(Checkpoint event, int generation, long bytes, boolean restored) {
+        if (event != null && event.shouldCommit()) {
+            event.generation = generation;
+            event.bytes = bytes;
+            event.restored = restored;
+            event.commit();
+        }
+    }
+}
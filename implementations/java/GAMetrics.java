@@ -0,0 +1,192 @@
+// Live throughput and convergence metrics of one GAEngine
+// Counters are LongAdders, so parallel evaluation and breeding workers update
+// them without contending on a shared cache line; rates are derived from the
+// counters only when the MBean is read.
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+public final class GAMetrics implements GAMetricsMBean {
+    // Rates are recomputed once a window this long has passed since the last sample
+    private static final long SAMPLE_NANOS = 1_000_000_000L;
+    
+    private static final AtomicLong NEXT_ID = new AtomicLong();
+    
+    private final ObjectName name;
+    
+    private final LongAdder generations = new LongAdder();
+    private final LongAdder evaluations = new LongAdder();
+    private final LongAdder activeThreads = new LongAdder();
+    
+    // Written once per generation by the thread driving the engine
+    private volatile int bestFitness;
+    private volatile double meanFitness;
+    private volatile long driverThreadId = -1;
+    
+    // Latest sample and the rates over the window that ended with it
+    private long sampleNanos = System.nanoTime();
+    private long sampleGenerations;
+    private long sampleEvaluations;
+    private long sampleAllocatedBytes = -1;
+    private long sampleThreadId = -1;
+    private double generationsPerSecond;
+    private double evaluationsPerSecond;
+    private double allocationBytesPerSecond;
+    
+    private GAMetrics(ObjectName name) {
+        this.name = name;
+    }
+    
+    /**
+     * New metrics registered with the platform MBean server under the next
+     * free engine id.
+     */
+    static GAMetrics register() {
+        try {
+            ObjectName name = new ObjectName("onemax:type=GAEngine,id=" + NEXT_ID.incrementAndGet());
+            GAMetrics metrics = new GAMetrics(name);
+            ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, name);
+            return metrics;
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not register GA metrics", e);
+        }
+    }
+    
+    /**
+     * Remove the MBean from the platform MBean server.
+     */
+    void unregister() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not unregister GA metrics " + name, e);
+        }
+    }
+    
+    public ObjectName objectName() {
+        return name;
+    }
+    
+    /**
+     * Record the calling thread as the one driving the generation loop.
+     */
+    @SuppressWarnings("deprecation") // threadId() is JDK 19+ and the tree still builds on 17
+    void attachCurrentThread() {
+        driverThreadId = Thread.currentThread().getId();
+    }
+    
+    /**
+     * Record one evaluated generation and its fitness statistics.
+     */
+    void generationEvaluated(int bestFitness, double meanFitness) {
+        this.bestFitness = bestFitness;
+        this.meanFitness = meanFitness;
+        generations.increment();
+    }
+    
+    void addEvaluations(int count) {
+        evaluations.add(count);
+    }
+    
+    /**
+     * Bracket a batch of evaluation or breeding work on the calling thread.
+     */
+    void batchStarted() {
+        activeThreads.increment();
+    }
+    
+    void batchFinished() {
+        activeThreads.decrement();
+    }
+    
+    /**
+     * Recompute the rates if the current window has lasted long enough.
+     */
+    private synchronized void sample() {
+        long now = System.nanoTime();
+        long elapsed = now - sampleNanos;
+        if (elapsed < SAMPLE_NANOS) {
+            return;
+        }
+        long generationCount = generations.sum();
+        long evaluationCount = evaluations.sum();
+        long threadId = driverThreadId;
+        long allocated = allocatedBytes(threadId);
+        double seconds = elapsed / 1_000_000_000.0;
+        
+        generationsPerSecond = (generationCount - sampleGenerations) / seconds;
+        evaluationsPerSecond = (evaluationCount - sampleEvaluations) / seconds;
+        // A different or finished driver thread has no comparable baseline
+        allocationBytesPerSecond = threadId == sampleThreadId && allocated >= 0 && sampleAllocatedBytes >= 0
+                ? (allocated - sampleAllocatedBytes) / seconds
+                : 0;
+        
+        sampleNanos = now;
+        sampleGenerations = generationCount;
+        sampleEvaluations = evaluationCount;
+        sampleAllocatedBytes = allocated;
+        sampleThreadId = threadId;
+    }
+    
+    /**
+     * Bytes allocated so far by a live thread, or -1 when unknown.
+     */
+    private static long allocatedBytes(long threadId) {
+        if (threadId < 0
+                || !(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads)
+                || !threads.isThreadAllocatedMemorySupported() || !threads.isThreadAllocatedMemoryEnabled()) {
+            return -1;
+        }
+        return threads.getThreadAllocatedBytes(threadId);
+    }
+    
+    @Override
+    public long getGenerations() {
+        return generations.sum();
+    }
+    
+    @Override
+    public long getEvaluations() {
+        return evaluations.sum();
+    }
+    
+    @Override
+    public synchronized double getGenerationsPerSecond() {
+        sample();
+        return generationsPerSecond;
+    }
+    
+    @Override
+    public synchronized double getEvaluationsPerSecond() {
+        sample();
+        return evaluationsPerSecond;
+    }
+    
+    @Override
+    public synchronized double getAllocationBytesPerSecond() {
+        sample();
+        return allocationBytesPerSecond;
+    }
+    
+    @Override
+    public int getBestFitness() {
+        return bestFitness;
+    }
+    
+    @Override
+    public double getMeanFitness() {
+        return meanFitness;
+    }
+    
+    @Override
+    public int getActiveThreads() {
+        return (int) Math.max(0, activeThreads.sum());
+    }
+}
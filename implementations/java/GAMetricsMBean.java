@@ -0,0 +1,48 @@
+// Management interface of the Java One-Max GA engine metrics
+// Registered per engine under onemax:type=GAEngine,id=N while the engine is
+// open, for JMX dashboards watching long runs live.
+
+public interface GAMetricsMBean {
+    
+    /**
+     * Generations evaluated so far.
+     */
+    long getGenerations();
+    
+    /**
+     * Fitness evaluations so far, one per individual per generation.
+     */
+    long getEvaluations();
+    
+    /**
+     * Generations per second over the latest sampling window of at least
+     * one second.
+     */
+    double getGenerationsPerSecond();
+    
+    /**
+     * Evaluations per second over the latest sampling window.
+     */
+    double getEvaluationsPerSecond();
+    
+    /**
+     * Bytes per second allocated by the thread driving the generation loop,
+     * over the latest sampling window. Pool workers are not included.
+     */
+    double getAllocationBytesPerSecond();
+    
+    /**
+     * Best fitness of the latest evaluated generation.
+     */
+    int getBestFitness();
+    
+    /**
+     * Mean fitness of the latest evaluated generation.
+     */
+    double getMeanFitness();
+    
+    /**
+     * Threads evaluating or breeding for this engine right now.
+     */
+    int getActiveThreads();
+}
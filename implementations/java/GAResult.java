@@ -0,0 +1,80 @@
+// Result of one run of the Java One-Max GA
+// The outcome, fitness cache counters and a per-generation fitness trace. The
+// engine records the trace into arrays preallocated at construction and copies
+// them into the result once the run ends, so tracing allocates nothing in the
+// generation loop.
+
+public record GAResult(int generations,
+                       int bestFitness,
+                       long evaluations,
+                       long elapsedNanos,
+                       long cacheHits,
+                       long cacheMisses,
+                       int[] bestByGeneration,
+                       double[] meanByGeneration,
+                       int[] minByGeneration,
+                       long[] nanosByGeneration) {
+    
+    // Runs without a per-generation trace, such as island models
+    private static final int[] NO_INTS = new int[0];
+    private static final double[] NO_DOUBLES = new double[0];
+    private static final long[] NO_LONGS = new long[0];
+    
+    /**
+     * Result without a per-generation trace.
+     */
+    public static GAResult untraced(int generations, int bestFitness, long evaluations, long elapsedNanos,
+                                    long cacheHits, long cacheMisses) {
+        return new GAResult(generations, bestFitness, evaluations, elapsedNanos, cacheHits, cacheMisses,
+                            NO_INTS, NO_DOUBLES, NO_INTS, NO_LONGS);
+    }
+    
+    /**
+     * Number of traced evaluations. Entry g - 1 describes generation g; when
+     * the generation limit is reached, the last entry is the final population
+     * evaluated after it. Entries before a resumed run's first generation are zero.
+     * Runs longer than GAConfig.traceCapacity() are traced only that far.
+     */
+    public int tracedGenerations() {
+        return bestByGeneration.length;
+    }
+    
+    public double elapsedMillis() {
+        return elapsedNanos / 1_000_000.0;
+    }
+    
+    /**
+     * Fitness evaluations per second of run time, counting one evaluation per
+     * individual per evaluated generation.
+     */
+    public double evaluationsPerSecond() {
+        return elapsedNanos > 0 ? evaluations * 1_000_000_000.0 / elapsedNanos : 0;
+    }
+    
+    /**
+     * First generation whose best fitness reached the target, or -1.
+     */
+    public int generationsToTarget(int target) {
+        for (int g = 0; g < bestByGeneration.length; g++) {
+            if (bestByGeneration[g] >= target) return g + 1;
+        }
+        return -1;
+    }
+    
+    /**
+     * Nanoseconds from the start of the run until a generation's best fitness
+     * first reached the target, or -1.
+     */
+    public long nanosToTarget(int target) {
+        int generation = generationsToTarget(target);
+        return generation < 0 ? -1 : nanosByGeneration[generation - 1];
+    }
+    
+    @Override
+    public String toString() {
+        return "generations=" + generations
+                + ", best=" + bestFitness
+                + ", evaluations=" + evaluations
+                + ", elapsed=" + String.format("%.3f", elapsedMillis()) + " ms";
+    }
+}
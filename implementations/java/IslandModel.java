@@ -0,0 +1,294 @@
+// Island-model GA for the Java One-Max GA
+// Evolves several sub-populations, each on its own thread with its own
+// GAEngine, and periodically sends each island's fittest individuals to its
+// neighbours through lock-free rings. Migration is asynchronous: islands
+// never wait for each other, and migrants arrive whenever the receiver next
+// migrates.
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.random.RandomGenerator;
+
+public final class IslandModel implements AutoCloseable {
+    
+    /**
+     * Which islands receive each island's migrants.
+     * RING sends to the next island only; FULLY_CONNECTED sends to every
+     * other island.
+     */
+    public enum Topology {
+        RING,
+        FULLY_CONNECTED
+    }
+    
+    private final GAConfig config;
+    private final Island[] islands;
+    private final int maxGenerations;
+    private final int migrationInterval;
+    private final int optimumFitness;
+    
+    // [generation, fitness] of the first island to reach the optimum
+    private final AtomicReference<int[]> solution = new AtomicReference<>();
+    
+    // Set when an island fails or the run is interrupted, so the others stop too
+    private volatile boolean aborted;
+    
+    /**
+     * Islands as configured by config.islands(), each with a population of
+     * config.populationSize() and its own stream split from the
+     * configuration's generator.
+     */
+    public IslandModel(GAConfig config) {
+        this.config = config;
+        this.maxGenerations = config.maxGenerations();
+        this.migrationInterval = config.migrationInterval();
+        this.optimumFitness = config.fitnessFunction().optimum(config.chromosomeLength());
+        
+        int count = config.islands();
+        RandomGenerator[] streams = RandomStreams.split(config.newRandom(), count);
+        this.islands = new Island[count];
+        try {
+            for (int i = 0; i < count; i++) {
+                islands[i] = new Island(new GAEngine(config, streams[i]));
+            }
+            connect(config.topology(), config.migrants());
+        } catch (RuntimeException | Error e) {
+            // Release the MBeans and off-heap buffers of the islands already built
+            close();
+            throw e;
+        }
+    }
+    
+    /**
+     * Create one ring per directed edge of the topology, so that every ring
+     * has a single producer and a single consumer.
+     */
+    private void connect(Topology topology, int migrants) {
+        if (islands.length < 2 || migrants == 0) {
+            return;
+        }
+        // Room for two migrations in flight before a slow receiver drops migrants
+        int capacity = 2 * migrants;
+        int length = config.chromosomeLength();
+        for (int from = 0; from < islands.length; from++) {
+            for (int to = 0; to < islands.length; to++) {
+                boolean edge = topology == Topology.RING
+                        ? to == (from + 1) % islands.length
+                        : to != from;
+                if (edge) {
+                    MigrantRing ring = new MigrantRing(capacity, length);
+                    islands[from].outgoing.add(ring);
+                    islands[to].incoming.add(ring);
+                }
+            }
+        }
+        for (Island island : islands) {
+            island.emigrants = new int[migrants];
+            island.immigrants = new int[migrants * island.incoming.size()];
+        }
+    }
+    
+    public GAConfig config() {
+        return config;
+    }
+    
+    /**
+     * Run every island to completion on its own thread. The run ends when
+     * any island reaches the optimum or all reach the generation limit.
+     * The result counts the evaluations of all islands and has no
+     * per-generation trace, since islands advance independently.
+     */
+    public GAResult run() {
+        return run(System.nanoTime());
+    }
+    
+    GAResult run(long startNanos) {
+        solution.set(null);
+        aborted = false;
+        ExecutorService executor = Executors.newFixedThreadPool(islands.length);
+        int best = Integer.MIN_VALUE;
+        try {
+            List<Future<Integer>> runs = new ArrayList<>();
+            for (Island island : islands) {
+                runs.add(executor.submit(() -> {
+                    try {
+                        return island.evolve();
+                    } catch (RuntimeException | Error e) {
+                        // Stop the other islands now rather than when this future is reached
+                        aborted = true;
+                        throw e;
+                    }
+                }));
+            }
+            for (Future<Integer> run : runs) {
+                best = Math.max(best, run.get());
+            }
+        } catch (InterruptedException e) {
+            aborted = true;
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for islands", e);
+        } catch (ExecutionException e) {
+            aborted = true;
+            throw new IllegalStateException("Island failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+            // Engines are closed after run() returns, so no island may still be using one
+            awaitTermination(executor);
+        }
+        
+        long evaluations = 0;
+        long cacheHits = 0;
+        long cacheMisses = 0;
+        for (Island island : islands) {
+            evaluations += island.evaluations;
+            FitnessCache cache = island.engine.fitnessCache();
+            if (cache != null) {
+                cacheHits += cache.hits();
+                cacheMisses += cache.misses();
+            }
+        }
+        long elapsed = System.nanoTime() - startNanos;
+        int[] solved = solution.get();
+        return solved != null
+                ? GAResult.untraced(solved[0], solved[1], evaluations, elapsed, cacheHits, cacheMisses)
+                : GAResult.untraced(maxGenerations, best, evaluations, elapsed, cacheHits, cacheMisses);
+    }
+    
+    /**
+     * Wait for every island thread to finish, which aborted islands do
+     * within a generation, keeping any interrupt for the caller.
+     */
+    private static void awaitTermination(ExecutorService executor) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                if (executor.awaitTermination(1, TimeUnit.SECONDS)) break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    @Override
+    public void close() {
+        for (Island island : islands) {
+            // Null only when construction failed part way
+            if (island != null) {
+                island.engine.close();
+            }
+        }
+    }
+    
+    /**
+     * Fill `rows` with the rows of the highest (or lowest) fitnesses among
+     * the first `size`, best first. Migrant counts are small, so insertion
+     * into the short result list is cheaper than sorting the population.
+     */
+    static void selectRows(int[] fitnesses, int size, int[] rows, boolean highest) {
+        int count = rows.length;
+        int filled = 0;
+        for (int row = 0; row < size; row++) {
+            int fitness = fitnesses[row];
+            if (filled == count && !ranksBefore(fitness, fitnesses[rows[count - 1]], highest)) {
+                continue;
+            }
+            int j = filled < count ? filled++ : count - 1;
+            while (j > 0 && ranksBefore(fitness, fitnesses[rows[j - 1]], highest)) {
+                rows[j] = rows[j - 1];
+                j--;
+            }
+            rows[j] = row;
+        }
+    }
+    
+    private static boolean ranksBefore(int fitness, int other, boolean highest) {
+        return highest ? fitness > other : fitness < other;
+    }
+    
+    // One sub-population with its engine and migration channels
+    private final class Island {
+        private final GAEngine engine;
+        private final List<MigrantRing> outgoing = new ArrayList<>();
+        private final List<MigrantRing> incoming = new ArrayList<>();
+        private int[] emigrants;
+        private int[] immigrants;
+        private long evaluations;
+        
+        Island(GAEngine engine) {
+            this.engine = engine;
+        }
+        
+        /**
+         * Evolve until this or another island reaches the optimum, or until
+         * the generation limit. Returns the best fitness seen last.
+         */
+        int evolve() {
+            int size = engine.config().populationSize();
+            evaluations = 0;
+            engine.initializePopulation();
+            int maxFitness = Integer.MIN_VALUE;
+            for (int generation = 1; generation <= maxGenerations; generation++) {
+                if (solution.get() != null || aborted) {
+                    return maxFitness;
+                }
+                GAEvents.Generation event = GAEvents.beginGeneration();
+                maxFitness = engine.evaluate();
+                evaluations += size;
+                if (maxFitness >= optimumFitness) {
+                    engine.commitGeneration(event, generation, maxFitness);
+                    solution.compareAndSet(null, new int[]{generation, maxFitness});
+                    return maxFitness;
+                }
+                if (emigrants != null && generation % migrationInterval == 0) {
+                    migrate(generation);
+                }
+                engine.advance();
+                engine.commitGeneration(event, generation, maxFitness);
+            }
+            evaluations += size;
+            GAEvents.Generation event = GAEvents.beginGeneration();
+            maxFitness = engine.evaluate();
+            engine.commitGeneration(event, maxGenerations + 1, maxFitness);
+            return maxFitness;
+        }
+        
+        /**
+         * Send copies of the fittest rows to every neighbour, then overwrite
+         * the weakest rows with whatever migrants have arrived. Runs between
+         * evaluation and breeding, so migrants take part in selection at once.
+         */
+        private void migrate(int generation) {
+            GAEvents.Migration event = GAEvents.beginMigration();
+            Population population = engine.population();
+            int size = engine.config().populationSize();
+            int[] fitnesses = population.fitnesses();
+            
+            selectRows(fitnesses, size, emigrants, true);
+            int sent = 0;
+            for (MigrantRing ring : outgoing) {
+                for (int row : emigrants) {
+                    if (ring.offer(population, row)) sent++;
+                }
+            }
+            
+            // At most one batch per neighbour, so a backlog from one cannot crowd out the others
+            selectRows(fitnesses, size, immigrants, false);
+            int next = 0;
+            for (MigrantRing ring : incoming) {
+                for (int k = 0; k < emigrants.length && ring.poll(population, immigrants[next]); k++) {
+                    next++;
+                }
+            }
+            GAEvents.commit(event, generation, sent, emigrants.length * outgoing.size() - sent, next);
+        }
+    }
+}
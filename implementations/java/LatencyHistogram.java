@@ -0,0 +1,162 @@
+// Fixed-memory latency histogram for the Java One-Max GA benchmarks
+// High-dynamic-range layout: values are grouped into power-of-two buckets, each
+// split into equal sub-buckets, so every recorded value keeps a fixed number of
+// significant digits from nanoseconds up to the trackable maximum. Recording
+// is a couple of shifts and an array increment; memory does not grow with the
+// number of values.
+
+import java.util.Arrays;
+
+public final class LatencyHistogram {
+    private final long highestTrackableValue;
+    private final int subBucketHalfCountMagnitude;
+    private final int subBucketHalfCount;
+    private final long subBucketMask;
+    private final int leadingZeroCountBase;
+    private final long[] counts;
+    
+    private long totalCount;
+    private long minValue = Long.MAX_VALUE;
+    private long maxValue;
+    
+    /**
+     * Histogram of values from 1 to highestTrackableValue, keeping
+     * significantDigits (1 to 5) decimal digits of precision. Larger values
+     * are recorded as highestTrackableValue.
+     */
+    public LatencyHistogram(long highestTrackableValue, int significantDigits) {
+        if (highestTrackableValue < 2) {
+            throw new IllegalArgumentException("Highest trackable value must be at least 2: " + highestTrackableValue);
+        }
+        if (significantDigits < 1 || significantDigits > 5) {
+            throw new IllegalArgumentException("Significant digits must be between 1 and 5: " + significantDigits);
+        }
+        this.highestTrackableValue = highestTrackableValue;
+        
+        // Sub-buckets fine enough that values below this are recorded exactly
+        long largestValueWithSingleUnitResolution = 2 * (long) Math.pow(10, significantDigits);
+        int subBucketCountMagnitude = 64 - Long.numberOfLeadingZeros(largestValueWithSingleUnitResolution - 1);
+        this.subBucketHalfCountMagnitude = subBucketCountMagnitude - 1;
+        this.subBucketHalfCount = 1 << subBucketHalfCountMagnitude;
+        int subBucketCount = 1 << subBucketCountMagnitude;
+        this.subBucketMask = subBucketCount - 1;
+        this.leadingZeroCountBase = 64 - subBucketCountMagnitude;
+        
+        // Each bucket doubles the range; its lower half overlaps the previous
+        // bucket, so only the upper half of the sub-buckets gets new slots
+        int bucketCount = 1;
+        long smallestUntrackableValue = subBucketCount;
+        while (smallestUntrackableValue <= highestTrackableValue) {
+            smallestUntrackableValue <<= 1;
+            bucketCount++;
+        }
+        this.counts = new long[(bucketCount + 1) * subBucketHalfCount];
+    }
+    
+    /**
+     * Histogram of nanosecond latencies up to one hour at three significant
+     * digits, which takes about 260 KiB.
+     */
+    public static LatencyHistogram ofNanos() {
+        return new LatencyHistogram(3_600_000_000_000L, 3);
+    }
+    
+    /**
+     * Record one value. Values below zero are recorded as zero, values above
+     * the trackable maximum as the maximum.
+     */
+    public void record(long value) {
+        long clamped = Math.min(Math.max(value, 0), highestTrackableValue);
+        counts[countsIndex(clamped)]++;
+        totalCount++;
+        minValue = Math.min(minValue, clamped);
+        maxValue = Math.max(maxValue, clamped);
+    }
+    
+    private int countsIndex(long value) {
+        int bucketIndex = leadingZeroCountBase - Long.numberOfLeadingZeros(value | subBucketMask);
+        int subBucketIndex = (int) (value >>> bucketIndex);
+        return ((bucketIndex + 1) << subBucketHalfCountMagnitude) + subBucketIndex - subBucketHalfCount;
+    }
+    
+    /**
+     * Largest value that falls into the same slot as the given index.
+     */
+    private long highestEquivalentValue(int index) {
+        int bucketIndex = (index >> subBucketHalfCountMagnitude) - 1;
+        int subBucketIndex = (index & (subBucketHalfCount - 1)) + subBucketHalfCount;
+        if (bucketIndex < 0) {
+            subBucketIndex -= subBucketHalfCount;
+            bucketIndex = 0;
+        }
+        return ((long) subBucketIndex << bucketIndex) + (1L << bucketIndex) - 1;
+    }
+    
+    public long totalCount() {
+        return totalCount;
+    }
+    
+    /**
+     * Smallest recorded value, or 0 when empty.
+     */
+    public long minValue() {
+        return totalCount == 0 ? 0 : minValue;
+    }
+    
+    /**
+     * Largest recorded value, exact rather than rounded to its slot.
+     */
+    public long maxValue() {
+        return maxValue;
+    }
+    
+    /**
+     * Value at or below which the given percentage (0 to 100) of recorded
+     * values fall, accurate to the histogram's precision and never above the
+     * recorded maximum. Returns 0 when empty.
+     */
+    public long valueAtPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100: " + percentile);
+        }
+        if (totalCount == 0) {
+            return 0;
+        }
+        long countAtPercentile = Math.max(1, (long) Math.ceil(percentile / 100 * totalCount));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= countAtPercentile) {
+                return Math.min(highestEquivalentValue(i), maxValue);
+            }
+        }
+        return maxValue;
+    }
+    
+    /**
+     * Clear all counts, keeping the allocated slots.
+     */
+    public void reset() {
+        Arrays.fill(counts, 0);
+        totalCount = 0;
+        minValue = Long.MAX_VALUE;
+        maxValue = 0;
+    }
+    
+    /**
+     * One line with p50, p90, p99, p99.9 and max, each divided by unitScale
+     * (e.g. 1_000_000 to print nanoseconds as milliseconds).
+     */
+    public String summary(String unit, double unitScale) {
+        return "p50=" + format(valueAtPercentile(50), unitScale)
+                + " p90=" + format(valueAtPercentile(90), unitScale)
+                + " p99=" + format(valueAtPercentile(99), unitScale)
+                + " p99.9=" + format(valueAtPercentile(99.9), unitScale)
+                + " max=" + format(maxValue, unitScale)
+                + " " + unit + " (n=" + totalCount + ")";
+    }
+    
+    private static String format(long value, double unitScale) {
+        return String.format("%.3f", value / unitScale);
+    }
+}
@@ -0,0 +1,76 @@
+// Lock-free migrant channel for the Java One-Max GA island model
+// A bounded single-producer, single-consumer ring of packed genomes and their
+// fitness. Slots are preallocated, so migration allocates nothing.
+
+import java.nio.LongBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+
+public final class MigrantRing {
+    private final int mask;
+    private final int stride;
+    private final long[] words;
+    private final int[] fitnesses;
+    
+    // Each view is used only by its own side, so positioning it needs no locks
+    private final LongBuffer producerView;
+    private final LongBuffer consumerView;
+    
+    // Next slot to read, advanced only by the consumer
+    private final AtomicLong head = new AtomicLong();
+    // Next slot to write, advanced only by the producer
+    private final AtomicLong tail = new AtomicLong();
+    
+    /**
+     * Ring holding at least `capacity` migrants of the given chromosome
+     * length, rounded up to a power of two.
+     */
+    public MigrantRing(int capacity, int chromosomeLength) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Ring capacity must be positive: " + capacity);
+        }
+        int slots = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = slots - 1;
+        this.stride = OneMaxGA.Individual.wordCount(chromosomeLength);
+        this.words = new long[slots * stride];
+        this.fitnesses = new int[slots];
+        this.producerView = LongBuffer.wrap(words);
+        this.consumerView = LongBuffer.wrap(words);
+    }
+    
+    /**
+     * Copy a row and its fitness into the ring. Called by the producer only.
+     * Returns false, dropping the migrant, when the consumer has fallen a
+     * full ring behind.
+     */
+    public boolean offer(Population source, int row) {
+        long position = tail.get();
+        if (position - head.get() > mask) {
+            return false;
+        }
+        int slot = (int) position & mask;
+        producerView.position(slot * stride);
+        source.writeRow(row, producerView);
+        fitnesses[slot] = source.fitnesses()[row];
+        // Release: the slot contents are visible before the new tail
+        tail.lazySet(position + 1);
+        return true;
+    }
+    
+    /**
+     * Move the oldest migrant into a row, fitness included. Called by the
+     * consumer only. Returns false when the ring is empty.
+     */
+    public boolean poll(Population target, int row) {
+        long position = head.get();
+        if (position == tail.get()) {
+            return false;
+        }
+        int slot = (int) position & mask;
+        consumerView.position(slot * stride);
+        target.readRow(row, consumerView);
+        target.fitnesses()[row] = fitnesses[slot];
+        // Release: the slot is only reused after it has been read
+        head.lazySet(position + 1);
+        return true;
+    }
+}
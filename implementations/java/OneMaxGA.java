@@ -2,39 +2,263 @@
 // Author: Genetic Algorithm Performance Comparison Project
 // Date: November 19, 2025
 
-import java.util.*;
+import java.nio.LongBuffer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.random.RandomGenerator;
 
 public class OneMaxGA {
-    // GA Parameters
-    private static final int POPULATION_SIZE = 100;
-    private static final int CHROMOSOME_LENGTH = 100;
-    private static final int MAX_GENERATIONS = 500;
-    private static final double CROSSOVER_RATE = 0.8;
-    private static final double MUTATION_RATE = 0.01;
-    private static final int TOURNAMENT_SIZE = 3;
-    
-    private static final Random random = new Random();
-    
-    // Individual representation as boolean array
-    private static class Individual {
-        private boolean[] genes;
-        
-        public Individual(int length) {
-            genes = new boolean[length];
-            for (int i = 0; i < length; i++) {
-                genes[i] = random.nextBoolean();
+    // GA Parameters (defaults for GAConfig)
+    static final int POPULATION_SIZE = 100;
+    static final int CHROMOSOME_LENGTH = 100;
+    static final int MAX_GENERATIONS = 500;
+    static final double CROSSOVER_RATE = 0.8;
+    static final double MUTATION_RATE = 0.01;
+    static final int TOURNAMENT_SIZE = 3;
+    
+    // Island-model defaults; a single island needs neither
+    static final int MIGRATION_INTERVAL = 10;
+    static final int MIGRANTS = 2;
+    
+    // Evaluations traced per run, bounding the trace at about 1.5 MiB
+    static final int TRACE_CAPACITY = 1 << 16;
+    
+    // Slice size of parallel evaluation, which is off unless threads are configured
+    static final int EVALUATION_THRESHOLD = 256;
+    
+    // Default RNG algorithm; any java.util.random.RandomGenerator can be passed to GAEngine
+    static final String DEFAULT_RANDOM_ALGORITHM = "L64X128MixRandom";
+    
+    /**
+     * Chromosome storage backing the population.
+     * BOOLEAN keeps one byte per gene and is the reference implementation
+     * shared with the other languages; PACKED stores 64 genes per long word
+     * in one object per individual; MATRIX stores the same packed words for
+     * the whole population as fixed-stride rows of a single array; OFF_HEAP
+     * keeps those rows in native memory freed at the end of the run.
+     */
+    public enum Representation {
+        BOOLEAN,
+        PACKED,
+        MATRIX,
+        OFF_HEAP
+    }
+    
+    static final Representation DEFAULT_REPRESENTATION = Representation.MATRIX;
+    
+    /**
+     * How mutation chooses the genes to flip.
+     * PER_GENE draws one random number per gene and is the reference operator;
+     * GEOMETRIC draws the gap to the next flipped gene, so its cost scales with
+     * the number of flips rather than the chromosome length.
+     */
+    public enum MutationMode {
+        PER_GENE,
+        GEOMETRIC
+    }
+    
+    static final MutationMode DEFAULT_MUTATION_MODE = MutationMode.PER_GENE;
+    
+    /**
+     * How crossover combines two parents.
+     * SINGLE_POINT swaps the tails after one random point and is the
+     * reference operator; TWO_POINT and K_POINT swap alternate segments
+     * between two or k random points; UNIFORM picks every gene from either
+     * parent with equal probability. All but SINGLE_POINT build a bit mask
+     * one 64-gene word at a time and blend the parents with it.
+     */
+    public enum CrossoverMode {
+        SINGLE_POINT,
+        TWO_POINT,
+        K_POINT,
+        UNIFORM
+    }
+    
+    static final CrossoverMode DEFAULT_CROSSOVER_MODE = CrossoverMode.SINGLE_POINT;
+    static final int CROSSOVER_POINTS = 2;
+    
+    // Individual representation, independent of how the genes are stored
+    static abstract class Individual {
+        
+        /**
+         * Create an all-zero individual, used to preallocate population buffers.
+         */
+        public static Individual blank(Representation representation, int length) {
+            switch (representation) {
+                case BOOLEAN: return new BooleanIndividual(new boolean[length]);
+                case PACKED:  return new PackedIndividual(new long[wordCount(length)], length);
+                default: throw new IllegalArgumentException("No individual type for representation: " + representation);
+            }
+        }
+        
+        public abstract int length();
+        
+        /**
+         * Overwrite every gene with a uniformly random value.
+         */
+        public abstract void randomize(RandomGenerator random);
+        
+        public abstract boolean getGene(int index);
+        
+        /**
+         * Flip one gene and return its new value.
+         */
+        public abstract boolean flipGene(int index);
+        
+        /**
+         * Number of genes set to true; the One-Max objective and the basis
+         * of FitnessFunction.ONE_MAX.
+         */
+        public abstract int countOnes();
+        
+        /**
+         * Number of genes set to true in [from, to).
+         */
+        public abstract int countOnes(int from, int to);
+        
+        /**
+         * 64-bit hash of the genome. Genes are hashed 64 at a time in packed
+         * word order, so equal genomes hash equally in either representation.
+         */
+        public abstract long genomeHash();
+        
+        /**
+         * Number of long words holding a packed chromosome of the given length.
+         */
+        static int wordCount(int length) {
+            return (length + 63) >>> 6;
+        }
+        
+        /**
+         * Set genes in [from, to) of the packed chromosome starting at words[offset].
+         */
+        static int countWordOnes(long[] words, int offset, int from, int to) {
+            if (from >= to) return 0;
+            int firstWord = offset + (from >>> 6);
+            int lastWord = offset + ((to - 1) >>> 6);
+            long firstMask = -1L << from;
+            long lastMask = -1L >>> (63 - ((to - 1) & 63));
+            if (firstWord == lastWord) {
+                return Long.bitCount(words[firstWord] & firstMask & lastMask);
             }
+            return Long.bitCount(words[firstWord] & firstMask)
+                    + BitKernels.ACTIVE.popcount(words, firstWord + 1, lastWord)
+                    + Long.bitCount(words[lastWord] & lastMask);
         }
         
-        public Individual(boolean[] genes) {
+        /**
+         * Hash of the `count` packed words starting at words[offset].
+         */
+        static long hashWords(long[] words, int offset, int count, int length) {
+            long hash = 0;
+            for (int w = offset; w < offset + count; w++) {
+                hash = mixWord(hash, words[w]);
+            }
+            return finishHash(hash, length);
+        }
+        
+        /**
+         * Single-point crossover of two packed chromosomes of `count` words,
+         * each addressed by its array and starting offset.
+         */
+        static void crossoverWords(long[] words1, int offset1, long[] words2, int offset2,
+                                   long[] child1, int childOffset1, long[] child2, int childOffset2,
+                                   int count, int crossoverPoint) {
+            // Whole words on either side of the word holding the crossover point
+            int splitWord = crossoverPoint >>> 6;
+            System.arraycopy(words1, offset1, child1, childOffset1, splitWord);
+            System.arraycopy(words2, offset2, child2, childOffset2, splitWord);
+            System.arraycopy(words2, offset2 + splitWord, child1, childOffset1 + splitWord, count - splitWord);
+            System.arraycopy(words1, offset1 + splitWord, child2, childOffset2 + splitWord, count - splitWord);
+            
+            // Blend the split word: low bits from the first parent, high bits from the second.
+            // Shift distances are taken mod 64, so a word-aligned point yields an empty mask.
+            long lowMask = (1L << crossoverPoint) - 1;
+            long word1 = words1[offset1 + splitWord];
+            long word2 = words2[offset2 + splitWord];
+            child1[childOffset1 + splitWord] = (word1 & lowMask) | (word2 & ~lowMask);
+            child2[childOffset2 + splitWord] = (word2 & lowMask) | (word1 & ~lowMask);
+        }
+        
+        static long mixWord(long hash, long word) {
+            hash = (hash ^ word) * 0x9E3779B97F4A7C15L;
+            return hash ^ (hash >>> 29);
+        }
+        
+        static long finishHash(long hash, int length) {
+            // MurmurHash3 64-bit finalizer
+            hash ^= length;
+            hash ^= hash >>> 33;
+            hash *= 0xFF51AFD7ED558CCDL;
+            hash ^= hash >>> 33;
+            hash *= 0xC4CEB9FE1A85EC53L;
+            return hash ^ (hash >>> 33);
+        }
+        
+        /**
+         * Overwrite this individual's genes with those of another individual
+         * of the same representation and length.
+         */
+        public abstract void copyFrom(Individual source);
+        
+        /**
+         * Write the two children of a single-point crossover at the given point
+         * into preallocated individuals. All four must share the same representation.
+         */
+        public abstract void crossoverInto(Individual other, int crossoverPoint,
+                                           Individual child1, Individual child2);
+        
+        /**
+         * Write the two children of a mask-driven crossover into preallocated
+         * individuals: gene i of child1 comes from this individual where bit
+         * (i & 63) of mask[i >>> 6] is set and from `other` elsewhere, and
+         * child2 takes the opposite genes.
+         */
+        public abstract void maskedCrossoverInto(Individual other, long[] mask,
+                                                 Individual child1, Individual child2);
+        
+        /**
+         * Put the genome at the buffer's position as wordCount(length) packed words.
+         */
+        public abstract void writeWords(LongBuffer out);
+        
+        /**
+         * Overwrite the genome with packed words taken from the buffer's position.
+         */
+        public abstract void readWords(LongBuffer in);
+    }
+    
+    // Reference representation as boolean array
+    private static final class BooleanIndividual extends Individual {
+        private final boolean[] genes;
+        
+        public BooleanIndividual(boolean[] genes) {
             this.genes = genes.clone();
         }
         
-        public boolean[] getGenes() {
-            return genes.clone();
+        @Override
+        public int length() {
+            return genes.length;
         }
         
-        public int getFitness() {
+        @Override
+        public void randomize(RandomGenerator random) {
+            for (int i = 0; i < genes.length; i++) {
+                genes[i] = random.nextBoolean();
+            }
+        }
+        
+        @Override
+        public boolean getGene(int index) {
+            return genes[index];
+        }
+        
+        @Override
+        public boolean flipGene(int index) {
+            return genes[index] = !genes[index];
+        }
+        
+        @Override
+        public int countOnes() {
             int count = 0;
             for (boolean gene : genes) {
                 if (gene) count++;
@@ -42,151 +266,222 @@ public class OneMaxGA {
             return count;
         }
         
-        public Individual copy() {
-            return new Individual(this.genes);
+        @Override
+        public int countOnes(int from, int to) {
+            int count = 0;
+            for (int i = from; i < to; i++) {
+                if (genes[i]) count++;
+            }
+            return count;
         }
-    }
-    
-    /**
-     * Initialize a random population of binary individuals.
-     */
-    private static List<Individual> initializePopulation(int size, int length) {
-        List<Individual> population = new ArrayList<>();
-        for (int i = 0; i < size; i++) {
-            population.add(new Individual(length));
+        
+        @Override
+        public long genomeHash() {
+            long hash = 0;
+            long word = 0;
+            for (int i = 0; i < genes.length; i++) {
+                if (genes[i]) word |= 1L << i;
+                if ((i & 63) == 63) {
+                    hash = mixWord(hash, word);
+                    word = 0;
+                }
+            }
+            if ((genes.length & 63) != 0) {
+                hash = mixWord(hash, word);
+            }
+            return finishHash(hash, genes.length);
         }
-        return population;
-    }
-    
-    /**
-     * Tournament selection with pre-computed fitnesses.
-     */
-    private static Individual tournamentSelection(List<Individual> population, int[] fitnesses, int tournamentSize) {
-        Individual best = null;
-        int bestFitness = -1;
-        
-        for (int i = 0; i < tournamentSize; i++) {
-            int candidateIndex = random.nextInt(population.size());
-            Individual candidate = population.get(candidateIndex);
-            int fitness = fitnesses[candidateIndex];
-            if (fitness > bestFitness) {
-                bestFitness = fitness;
-                best = candidate;
+        
+        @Override
+        public void copyFrom(Individual source) {
+            System.arraycopy(((BooleanIndividual) source).genes, 0, genes, 0, genes.length);
+        }
+        
+        @Override
+        public void crossoverInto(Individual other, int crossoverPoint,
+                                  Individual child1, Individual child2) {
+            int length = genes.length;
+            boolean[] genes1 = this.genes;
+            boolean[] genes2 = ((BooleanIndividual) other).genes;
+            boolean[] offspring1Genes = ((BooleanIndividual) child1).genes;
+            boolean[] offspring2Genes = ((BooleanIndividual) child2).genes;
+            
+            System.arraycopy(genes1, 0, offspring1Genes, 0, crossoverPoint);
+            System.arraycopy(genes2, crossoverPoint, offspring1Genes, crossoverPoint, 
+                            length - crossoverPoint);
+            
+            System.arraycopy(genes2, 0, offspring2Genes, 0, crossoverPoint);
+            System.arraycopy(genes1, crossoverPoint, offspring2Genes, crossoverPoint, 
+                            length - crossoverPoint);
+        }
+        
+        @Override
+        public void maskedCrossoverInto(Individual other, long[] mask,
+                                        Individual child1, Individual child2) {
+            boolean[] genes2 = ((BooleanIndividual) other).genes;
+            boolean[] offspring1Genes = ((BooleanIndividual) child1).genes;
+            boolean[] offspring2Genes = ((BooleanIndividual) child2).genes;
+            for (int i = 0; i < genes.length; i++) {
+                boolean fromThis = (mask[i >>> 6] & (1L << i)) != 0;
+                offspring1Genes[i] = fromThis ? genes[i] : genes2[i];
+                offspring2Genes[i] = fromThis ? genes2[i] : genes[i];
+            }
+        }
+        
+        @Override
+        public void writeWords(LongBuffer out) {
+            long word = 0;
+            for (int i = 0; i < genes.length; i++) {
+                if (genes[i]) word |= 1L << i;
+                if ((i & 63) == 63) {
+                    out.put(word);
+                    word = 0;
+                }
+            }
+            if ((genes.length & 63) != 0) {
+                out.put(word);
             }
         }
         
-        return best.copy();
+        @Override
+        public void readWords(LongBuffer in) {
+            long word = 0;
+            for (int i = 0; i < genes.length; i++) {
+                if ((i & 63) == 0) word = in.get();
+                genes[i] = (word & (1L << i)) != 0;
+            }
+        }
     }
     
-    /**
-     * Single-point crossover between two parents.
-     */
-    private static Individual[] singlePointCrossover(Individual parent1, Individual parent2) {
-        if (random.nextDouble() > CROSSOVER_RATE) {
-            return new Individual[]{parent1.copy(), parent2.copy()};
+    // Packed representation: gene i is bit (i & 63) of words[i >>> 6]
+    private static final class PackedIndividual extends Individual {
+        private final long[] words;
+        private final int length;
+        
+        private PackedIndividual(long[] words, int length) {
+            this.words = words;
+            this.length = length;
         }
         
-        int crossoverPoint = random.nextInt(CHROMOSOME_LENGTH - 1) + 1;
-        boolean[] genes1 = parent1.getGenes();
-        boolean[] genes2 = parent2.getGenes();
+        /**
+         * Keep the bits past the end of the chromosome at zero so that
+         * word-level bit counts never see them.
+         */
+        private void clearUnusedBits() {
+            int tailBits = length & 63;
+            if (tailBits != 0) {
+                words[words.length - 1] &= (1L << tailBits) - 1;
+            }
+        }
         
-        boolean[] offspring1Genes = new boolean[CHROMOSOME_LENGTH];
-        boolean[] offspring2Genes = new boolean[CHROMOSOME_LENGTH];
+        @Override
+        public int length() {
+            return length;
+        }
         
-        System.arraycopy(genes1, 0, offspring1Genes, 0, crossoverPoint);
-        System.arraycopy(genes2, crossoverPoint, offspring1Genes, crossoverPoint, 
-                        CHROMOSOME_LENGTH - crossoverPoint);
+        @Override
+        public void randomize(RandomGenerator random) {
+            for (int w = 0; w < words.length; w++) {
+                words[w] = random.nextLong();
+            }
+            clearUnusedBits();
+        }
+        
+        @Override
+        public boolean getGene(int index) {
+            return (words[index >>> 6] & (1L << index)) != 0;
+        }
         
-        System.arraycopy(genes2, 0, offspring2Genes, 0, crossoverPoint);
-        System.arraycopy(genes1, crossoverPoint, offspring2Genes, crossoverPoint, 
-                        CHROMOSOME_LENGTH - crossoverPoint);
+        @Override
+        public boolean flipGene(int index) {
+            return ((words[index >>> 6] ^= 1L << index) & (1L << index)) != 0;
+        }
+        
+        @Override
+        public int countOnes() {
+            return BitKernels.ACTIVE.popcount(words, 0, words.length);
+        }
         
-        return new Individual[]{new Individual(offspring1Genes), new Individual(offspring2Genes)};
+        @Override
+        public int countOnes(int from, int to) {
+            return countWordOnes(words, 0, from, to);
+        }
+        
+        @Override
+        public long genomeHash() {
+            return hashWords(words, 0, words.length, length);
+        }
+        
+        @Override
+        public void copyFrom(Individual source) {
+            System.arraycopy(((PackedIndividual) source).words, 0, words, 0, words.length);
+        }
+        
+        @Override
+        public void crossoverInto(Individual other, int crossoverPoint,
+                                  Individual child1, Individual child2) {
+            crossoverWords(words, 0, ((PackedIndividual) other).words, 0,
+                           ((PackedIndividual) child1).words, 0, ((PackedIndividual) child2).words, 0,
+                           words.length, crossoverPoint);
+        }
+        
+        @Override
+        public void maskedCrossoverInto(Individual other, long[] mask,
+                                        Individual child1, Individual child2) {
+            BitKernels.ACTIVE.maskedCrossover(words, 0, ((PackedIndividual) other).words, 0, mask,
+                                              ((PackedIndividual) child1).words, 0,
+                                              ((PackedIndividual) child2).words, 0, words.length);
+        }
+        
+        @Override
+        public void writeWords(LongBuffer out) {
+            out.put(words);
+        }
+        
+        @Override
+        public void readWords(LongBuffer in) {
+            in.get(words);
+        }
     }
     
     /**
-     * Mutate an individual with specified mutation rate.
+     * Main genetic algorithm function using the default configuration.
      */
-    private static void mutate(Individual individual, double mutationRate) {
-        boolean[] genes = individual.genes;
-        for (int i = 0; i < genes.length; i++) {
-            if (random.nextDouble() < mutationRate) {
-                genes[i] = !genes[i];
-            }
-        }
+    public static GAResult runGA() {
+        return runGA(GAConfig.defaults());
     }
     
     /**
-     * Main genetic algorithm function.
-     * Returns array with [generations, bestFitness].
+     * Main genetic algorithm function. The elapsed time in the result
+     * includes constructing the engine and its buffers.
      */
-    public static int[] runGA() {
-        // Initialize population
-        List<Individual> population = initializePopulation(POPULATION_SIZE, CHROMOSOME_LENGTH);
-        
-        for (int generation = 1; generation <= MAX_GENERATIONS; generation++) {
-            // Evaluate fitness once per generation
-            int[] fitnesses = new int[population.size()];
-            for (int i = 0; i < population.size(); i++) {
-                fitnesses[i] = population.get(i).getFitness();
-            }
-            
-            // Check for optimal solution
-            int maxFitness = 0;
-            for (int fitness : fitnesses) {
-                if (fitness > maxFitness) maxFitness = fitness;
-            }
-            
-            if (maxFitness == CHROMOSOME_LENGTH) {
-                return new int[]{generation, maxFitness};
-            }
-            
-            // Create new population
-            List<Individual> newPopulation = new ArrayList<>();
-            
-            while (newPopulation.size() < POPULATION_SIZE) {
-                // Selection
-                Individual parent1 = tournamentSelection(population, fitnesses, TOURNAMENT_SIZE);
-                Individual parent2 = tournamentSelection(population, fitnesses, TOURNAMENT_SIZE);
-                
-                // Crossover
-                Individual[] offspring = singlePointCrossover(parent1, parent2);
-                
-                // Mutation
-                mutate(offspring[0], MUTATION_RATE);
-                mutate(offspring[1], MUTATION_RATE);
-                
-                // Add to new population
-                newPopulation.add(offspring[0]);
-                if (newPopulation.size() < POPULATION_SIZE) {
-                    newPopulation.add(offspring[1]);
-                }
+    public static GAResult runGA(GAConfig config) {
+        long startTime = System.nanoTime();
+        if (config.islands() > 1) {
+            try (IslandModel model = new IslandModel(config)) {
+                return model.run(startTime);
             }
-            
-            population = newPopulation;
-        }
-        
-        // Final evaluation
-        int[] finalFitnesses = new int[population.size()];
-        for (int i = 0; i < population.size(); i++) {
-            finalFitnesses[i] = population.get(i).getFitness();
         }
-        int finalMaxFitness = 0;
-        for (int fitness : finalFitnesses) {
-            if (fitness > finalMaxFitness) finalMaxFitness = fitness;
+        ForkJoinPool pool = GAEngine.newStagePool(config);
+        try (GAEngine engine = new GAEngine(config)) {
+            return engine.withConfiguredStages(pool).run(startTime);
+        } finally {
+            if (pool != null) pool.shutdown();
         }
-        
-        return new int[]{MAX_GENERATIONS, finalMaxFitness};
     }
     
     /**
      * Run a single GA instance and return execution time in milliseconds.
      */
     public static double benchmarkSingleRun() {
-        long startTime = System.nanoTime();
-        int[] result = runGA();
-        long endTime = System.nanoTime();
-        
-        return (endTime - startTime) / 1_000_000.0;
+        return benchmarkSingleRun(GAConfig.defaults());
+    }
+    
+    /**
+     * Run a single GA instance with the given configuration and return
+     * execution time in milliseconds.
+     */
+    public static double benchmarkSingleRun(GAConfig config) {
+        return runGA(config).elapsedMillis();
     }
-}
\ No newline at end of file
+}
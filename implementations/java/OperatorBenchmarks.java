@@ -0,0 +1,245 @@
+// Per-operator microbenchmarks for the Java One-Max GA
+// Measures ns/op and allocated bytes/op for each GA operator, parameterized
+// by population size and chromosome length, with GC activity per benchmark.
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ForkJoinPool;
+import java.util.random.RandomGenerator;
+
+public class OperatorBenchmarks {
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int MEASUREMENT_ITERATIONS = 5;
+    private static final long ITERATION_NANOS = 200_000_000L;
+    
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    
+    // Results are folded into this field so the JIT cannot discard the work
+    private static volatile long sink;
+    
+    /**
+     * One benchmarked operation; returns a value that depends on the work done.
+     */
+    @FunctionalInterface
+    private interface Operation {
+        long invoke();
+    }
+    
+    /**
+     * Run warmup iterations, then measurement iterations of a fixed time budget,
+     * and print mean ns/op, its standard deviation, bytes/op and GC activity.
+     */
+    private static void measure(String name, int populationSize, int chromosomeLength, Operation operation) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            runIteration(operation);
+        }
+        
+        double[] nanosPerOp = new double[MEASUREMENT_ITERATIONS];
+        long totalOps = 0;
+        long totalBytes = 0;
+        long gcCountBefore = gcCount();
+        long gcTimeBefore = gcTimeMillis();
+        for (int i = 0; i < MEASUREMENT_ITERATIONS; i++) {
+            long bytesBefore = THREADS.getCurrentThreadAllocatedBytes();
+            long[] opsAndNanos = runIteration(operation);
+            totalBytes += THREADS.getCurrentThreadAllocatedBytes() - bytesBefore;
+            totalOps += opsAndNanos[0];
+            nanosPerOp[i] = (double) opsAndNanos[1] / opsAndNanos[0];
+        }
+        long gcCount = gcCount() - gcCountBefore;
+        long gcTime = gcTimeMillis() - gcTimeBefore;
+        
+        double mean = 0;
+        for (double value : nanosPerOp) mean += value;
+        mean /= nanosPerOp.length;
+        double variance = 0;
+        for (double value : nanosPerOp) variance += (value - mean) * (value - mean);
+        double stdDev = Math.sqrt(variance / (nanosPerOp.length - 1));
+        
+        System.out.println(String.format("%-20s %8d %8d %14.1f %10.1f %12.1f %6d %8d",
+                name, populationSize, chromosomeLength, mean, stdDev,
+                (double) totalBytes / totalOps, gcCount, gcTime));
+    }
+    
+    /**
+     * Invoke the operation in batches until the iteration budget is spent.
+     * Returns [operations, elapsed nanos].
+     */
+    private static long[] runIteration(Operation operation) {
+        long ops = 0;
+        long result = 0;
+        int batch = 1;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            for (int i = 0; i < batch; i++) {
+                result += operation.invoke();
+            }
+            ops += batch;
+            if (batch < 1024) batch <<= 1;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < ITERATION_NANOS);
+        sink += result;
+        return new long[]{ops, elapsed};
+    }
+    
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+        }
+        return count;
+    }
+    
+    private static long gcTimeMillis() {
+        long time = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            time += Math.max(0, gc.getCollectionTime());
+        }
+        return time;
+    }
+    
+    /**
+     * Benchmark every operator for one population size and chromosome length.
+     */
+    public static void runBenchmarks(int populationSize, int chromosomeLength, int[] breedingWorkers) {
+        GAConfig config = GAConfig.builder()
+                .populationSize(populationSize)
+                .chromosomeLength(chromosomeLength)
+                .build();
+        RandomGenerator random = config.newRandom();
+        GAEngine engine = new GAEngine(config, random);
+        engine.initializePopulation();
+        engine.evaluate();
+        
+        FitnessFunction fitness = config.fitnessFunction();
+        int[] cursor = new int[1];
+        
+        measure("initializePopulation", populationSize, chromosomeLength, () -> {
+            engine.initializePopulation();
+            return engine.population().countOnes(0);
+        });
+        engine.evaluate();
+        Population population = engine.population();
+        measure("tournamentSelection", populationSize, chromosomeLength,
+                () -> engine.tournamentSelection(config.tournamentSize(), random));
+        measure("singlePointCrossover", populationSize, chromosomeLength, () -> {
+            int parent1 = random.nextInt(populationSize);
+            int parent2 = random.nextInt(populationSize);
+            engine.singlePointCrossover(parent1, parent2, 0, 1, random);
+            return parent1 + parent2;
+        });
+        long[] mask = new long[(chromosomeLength + 63) >>> 6];
+        int[] points = new int[Math.min(4, chromosomeLength - 1)];
+        measure("uniformCrossover", populationSize, chromosomeLength, () -> {
+            int parent1 = random.nextInt(populationSize);
+            int parent2 = random.nextInt(populationSize);
+            engine.uniformCrossover(parent1, parent2, 0, 1, random, mask);
+            return parent1 + parent2;
+        });
+        measure("kPointCrossover", populationSize, chromosomeLength, () -> {
+            int parent1 = random.nextInt(populationSize);
+            int parent2 = random.nextInt(populationSize);
+            engine.kPointCrossover(parent1, parent2, 0, 1, random, mask, points);
+            return parent1 + parent2;
+        });
+        measure("mutate", populationSize, chromosomeLength, () -> {
+            engine.mutate(0, config.mutationRate(), random);
+            return 1;
+        });
+        measure("getFitness", populationSize, chromosomeLength, () -> {
+            int index = cursor[0]++;
+            if (cursor[0] == populationSize) cursor[0] = 0;
+            return fitness.evaluate(population, index);
+        });
+        
+        // Word-level kernels behind packed fitness and mask-based crossover
+        int words = (chromosomeLength + 63) >>> 6;
+        long[] parentWords1 = new long[words];
+        long[] parentWords2 = new long[words];
+        long[] maskWords = new long[words];
+        long[] childWords1 = new long[words];
+        long[] childWords2 = new long[words];
+        for (int w = 0; w < words; w++) {
+            parentWords1[w] = random.nextLong();
+            parentWords2[w] = random.nextLong();
+            maskWords[w] = random.nextLong();
+        }
+        measure("popcountKernel", populationSize, chromosomeLength,
+                () -> BitKernels.ACTIVE.popcount(parentWords1, 0, words));
+        measure("maskedCrossover", populationSize, chromosomeLength, () -> {
+            BitKernels.ACTIVE.maskedCrossover(parentWords1, 0, parentWords2, 0, maskWords,
+                                              childWords1, 0, childWords2, 0, words);
+            return childWords1[0];
+        });
+        
+        measure("generation", populationSize, chromosomeLength, engine::step);
+        measure("breed", populationSize, chromosomeLength, () -> {
+            engine.advance();
+            return engine.population().countOnes(0);
+        });
+        engine.close();
+        
+        // Breeding stage on a pool, to compare against the sequential "breed"
+        for (int workers : breedingWorkers) {
+            if (workers > (populationSize + 1) / 2) continue;
+            GAConfig parallel = config.toBuilder().breedingWorkers(workers).build();
+            ForkJoinPool pool = GAEngine.newStagePool(parallel);
+            try (GAEngine parallelEngine = new GAEngine(parallel).withConfiguredStages(pool)) {
+                parallelEngine.initializePopulation();
+                parallelEngine.evaluate();
+                measure("breed/" + workers + " workers", populationSize, chromosomeLength, () -> {
+                    parallelEngine.advance();
+                    return parallelEngine.population().countOnes(0);
+                });
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+    
+    private static int[] parseSizes(String value) {
+        String[] parts = value.split(",");
+        int[] sizes = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            sizes[i] = Integer.parseInt(parts[i].trim());
+        }
+        return sizes;
+    }
+    
+    /**
+     * Usage: java OperatorBenchmarks [--populations 100,1000] [--lengths 100,10000]
+     *                                [--breeding-workers 2,4]
+     * B/op counts allocations of the measuring thread only.
+     */
+    public static void main(String[] args) {
+        int[] populationSizes = {100, 1000};
+        int[] chromosomeLengths = {100, 10000};
+        int[] breedingWorkers = {2, 4};
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--populations":
+                    populationSizes = parseSizes(args[++i]);
+                    break;
+                case "--lengths":
+                    chromosomeLengths = parseSizes(args[++i]);
+                    break;
+                case "--breeding-workers":
+                    breedingWorkers = parseSizes(args[++i]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+        
+        System.out.println("Java One-Max GA Operator Benchmarks (" + BitKernels.ACTIVE.name() + " bit kernels)");
+        System.out.println(String.format("%-20s %8s %8s %14s %10s %12s %6s %8s",
+                "benchmark", "popSize", "length", "ns/op", "stddev", "B/op", "gc", "gcMs"));
+        for (int populationSize : populationSizes) {
+            for (int chromosomeLength : chromosomeLengths) {
+                runBenchmarks(populationSize, chromosomeLength, breedingWorkers);
+            }
+        }
+    }
+}
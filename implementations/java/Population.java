@@ -0,0 +1,260 @@
+// Population storage for the Java One-Max GA
+// A fixed number of genome rows plus a parallel fitness array. The engine
+// addresses individuals by row, so the storage layout is interchangeable.
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.LongBuffer;
+import java.util.random.RandomGenerator;
+
+public abstract class Population implements AutoCloseable {
+    private final int rows;
+    private final int length;
+    private final int[] fitnesses;
+    
+    protected Population(int rows, int length) {
+        if (rows < 1) {
+            throw new IllegalArgumentException("Population must have at least one row: " + rows);
+        }
+        this.rows = rows;
+        this.length = length;
+        this.fitnesses = new int[rows];
+    }
+    
+    /**
+     * All-zero population of the given representation, with `rows` genomes
+     * of `length` genes each.
+     */
+    public static Population create(OneMaxGA.Representation representation, int rows, int length) {
+        switch (representation) {
+            case BOOLEAN:
+            case PACKED:  return new OfIndividuals(representation, rows, length);
+            case MATRIX:  return new PopulationMatrix(rows, length);
+            case OFF_HEAP: return offHeap(rows, length);
+            default: throw new IllegalArgumentException("Unknown representation: " + representation);
+        }
+    }
+    
+    /**
+     * Off-heap population, or the heap matrix when the off-heap backend is
+     * not available in this JVM.
+     */
+    private static Population offHeap(int rows, int length) {
+        if (OffHeap.CONSTRUCTOR == null) {
+            return new PopulationMatrix(rows, length);
+        }
+        try {
+            return OffHeap.CONSTRUCTOR.newInstance(rows, length);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Cannot allocate off-heap population", e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot allocate off-heap population", e);
+        }
+    }
+    
+    // Resolves the optional foreign/OffHeapPopulation backend once per JVM
+    private static final class OffHeap {
+        static final Constructor<? extends Population> CONSTRUCTOR = find();
+        
+        private static Constructor<? extends Population> find() {
+            try {
+                return Class.forName("OffHeapPopulation").asSubclass(Population.class)
+                        .getConstructor(int.class, int.class);
+            } catch (ReflectiveOperationException | LinkageError e) {
+                // Not compiled, or compiled for a newer JDK or preview features this JVM lacks
+                System.err.println("Off-heap population unavailable (" + e + "), using the heap matrix");
+                return null;
+            }
+        }
+    }
+    
+    public final int rows() {
+        return rows;
+    }
+    
+    public final int length() {
+        return length;
+    }
+    
+    /**
+     * Fitness of each row, indexed like the genomes.
+     */
+    public final int[] fitnesses() {
+        return fitnesses;
+    }
+    
+    /**
+     * Overwrite every gene of a row with a uniformly random value.
+     */
+    public abstract void randomize(int row, RandomGenerator random);
+    
+    public abstract boolean getGene(int row, int gene);
+    
+    /**
+     * Flip one gene of a row and return its new value.
+     */
+    public abstract boolean flipGene(int row, int gene);
+    
+    /**
+     * Number of set genes in a row.
+     */
+    public abstract int countOnes(int row);
+    
+    /**
+     * Number of set genes in [from, to) of a row.
+     */
+    public abstract int countOnes(int row, int from, int to);
+    
+    /**
+     * Number of set genes of rows [from, to) into counts[from, to).
+     * Override to scan the rows without a call per row.
+     */
+    public void countOnes(int from, int to, int[] counts) {
+        for (int row = from; row < to; row++) {
+            counts[row] = countOnes(row);
+        }
+    }
+    
+    /**
+     * 64-bit hash of a row's genome, equal across representations.
+     */
+    public abstract long genomeHash(int row);
+    
+    /**
+     * Overwrite a row with a row of another population of the same class
+     * and length.
+     */
+    public abstract void copyRow(int row, Population source, int sourceRow);
+    
+    /**
+     * Write the two children of a single-point crossover of rows `parent1`
+     * and `parent2` into rows `child1` and `child2` of `children`, which
+     * must be of the same class and length.
+     */
+    public abstract void crossoverInto(int parent1, int parent2, int crossoverPoint,
+                                       Population children, int child1, int child2);
+    
+    /**
+     * Write the two children of a mask-driven crossover of rows `parent1`
+     * and `parent2` into rows `child1` and `child2` of `children`: where bit
+     * (i & 63) of mask[i >>> 6] is set, gene i of child1 comes from parent1
+     * and that of child2 from parent2; elsewhere the parents are swapped.
+     */
+    public abstract void maskedCrossoverInto(int parent1, int parent2, long[] mask,
+                                             Population children, int child1, int child2);
+    
+    /**
+     * Put a row's genome at the buffer's position as packed words, gene i in
+     * bit (i & 63) of word i >>> 6, with the bits past the end clear.
+     */
+    public abstract void writeRow(int row, LongBuffer out);
+    
+    /**
+     * Overwrite a row with packed words taken from the buffer's position.
+     */
+    public abstract void readRow(int row, LongBuffer in);
+    
+    /**
+     * Put rows [from, to) as consecutive packed rows. Override to copy the
+     * rows in bulk.
+     */
+    public void writeRows(int from, int to, LongBuffer out) {
+        for (int row = from; row < to; row++) {
+            writeRow(row, out);
+        }
+    }
+    
+    /**
+     * Overwrite rows [from, to) with consecutive packed rows.
+     */
+    public void readRows(int from, int to, LongBuffer in) {
+        for (int row = from; row < to; row++) {
+            readRow(row, in);
+        }
+    }
+    
+    /**
+     * Release storage held outside the heap. Heap layouts have nothing to
+     * release; the population must not be used after closing.
+     */
+    @Override
+    public void close() {
+    }
+    
+    // One Individual object per row, for the BOOLEAN and PACKED representations
+    static final class OfIndividuals extends Population {
+        private final OneMaxGA.Individual[] individuals;
+        
+        OfIndividuals(OneMaxGA.Representation representation, int rows, int length) {
+            super(rows, length);
+            this.individuals = new OneMaxGA.Individual[rows];
+            for (int row = 0; row < rows; row++) {
+                individuals[row] = OneMaxGA.Individual.blank(representation, length);
+            }
+        }
+        
+        @Override
+        public void randomize(int row, RandomGenerator random) {
+            individuals[row].randomize(random);
+        }
+        
+        @Override
+        public boolean getGene(int row, int gene) {
+            return individuals[row].getGene(gene);
+        }
+        
+        @Override
+        public boolean flipGene(int row, int gene) {
+            return individuals[row].flipGene(gene);
+        }
+        
+        @Override
+        public int countOnes(int row) {
+            return individuals[row].countOnes();
+        }
+        
+        @Override
+        public int countOnes(int row, int from, int to) {
+            return individuals[row].countOnes(from, to);
+        }
+        
+        @Override
+        public long genomeHash(int row) {
+            return individuals[row].genomeHash();
+        }
+        
+        @Override
+        public void copyRow(int row, Population source, int sourceRow) {
+            individuals[row].copyFrom(((OfIndividuals) source).individuals[sourceRow]);
+        }
+        
+        @Override
+        public void crossoverInto(int parent1, int parent2, int crossoverPoint,
+                                  Population children, int child1, int child2) {
+            OneMaxGA.Individual[] offspring = ((OfIndividuals) children).individuals;
+            individuals[parent1].crossoverInto(individuals[parent2], crossoverPoint,
+                                               offspring[child1], offspring[child2]);
+        }
+        
+        @Override
+        public void maskedCrossoverInto(int parent1, int parent2, long[] mask,
+                                        Population children, int child1, int child2) {
+            OneMaxGA.Individual[] offspring = ((OfIndividuals) children).individuals;
+            individuals[parent1].maskedCrossoverInto(individuals[parent2], mask,
+                                                     offspring[child1], offspring[child2]);
+        }
+        
+        @Override
+        public void writeRow(int row, LongBuffer out) {
+            individuals[row].writeWords(out);
+        }
+        
+        @Override
+        public void readRow(int row, LongBuffer in) {
+            individuals[row].readWords(in);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+// Contiguous population storage for the Java One-Max GA
+// Every genome is a fixed-stride row of packed words in one long[], so
+// scanning the population walks memory sequentially and the hardware
+// prefetcher can follow it, instead of chasing one object per individual.
+
+import java.nio.LongBuffer;
+import java.util.random.RandomGenerator;
+
+public final class PopulationMatrix extends Population {
+    // Gene g of row r is bit (g & 63) of words[r * stride + (g >>> 6)]
+    private final int stride;
+    private final long[] words;
+    
+    // Valid bits of each row's last word; bits past the chromosome stay zero
+    private final long tailMask;
+    
+    public PopulationMatrix(int rows, int length) {
+        super(rows, length);
+        this.stride = OneMaxGA.Individual.wordCount(length);
+        long size = (long) rows * stride;
+        if (size > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Population matrix too large: " + rows + " rows of " + stride + " words");
+        }
+        this.words = new long[(int) size];
+        int tailBits = length & 63;
+        this.tailMask = tailBits == 0 ? -1L : (1L << tailBits) - 1;
+    }
+    
+    /**
+     * Words per row.
+     */
+    public int stride() {
+        return stride;
+    }
+    
+    private int offset(int row) {
+        return row * stride;
+    }
+    
+    @Override
+    public void randomize(int row, RandomGenerator random) {
+        int base = offset(row);
+        for (int w = base; w < base + stride; w++) {
+            words[w] = random.nextLong();
+        }
+        words[base + stride - 1] &= tailMask;
+    }
+    
+    @Override
+    public boolean getGene(int row, int gene) {
+        return (words[offset(row) + (gene >>> 6)] & (1L << gene)) != 0;
+    }
+    
+    @Override
+    public boolean flipGene(int row, int gene) {
+        return ((words[offset(row) + (gene >>> 6)] ^= 1L << gene) & (1L << gene)) != 0;
+    }
+    
+    @Override
+    public int countOnes(int row) {
+        int base = offset(row);
+        return BitKernels.ACTIVE.popcount(words, base, base + stride);
+    }
+    
+    @Override
+    public int countOnes(int row, int from, int to) {
+        return OneMaxGA.Individual.countWordOnes(words, offset(row), from, to);
+    }
+    
+    @Override
+    public void countOnes(int from, int to, int[] counts) {
+        BitKernels kernels = BitKernels.ACTIVE;
+        for (int row = from, base = offset(from); row < to; row++, base += stride) {
+            counts[row] = kernels.popcount(words, base, base + stride);
+        }
+    }
+    
+    @Override
+    public long genomeHash(int row) {
+        return OneMaxGA.Individual.hashWords(words, offset(row), stride, length());
+    }
+    
+    @Override
+    public void copyRow(int row, Population source, int sourceRow) {
+        PopulationMatrix matrix = (PopulationMatrix) source;
+        System.arraycopy(matrix.words, matrix.offset(sourceRow), words, offset(row), stride);
+    }
+    
+    @Override
+    public void crossoverInto(int parent1, int parent2, int crossoverPoint,
+                              Population children, int child1, int child2) {
+        PopulationMatrix offspring = (PopulationMatrix) children;
+        OneMaxGA.Individual.crossoverWords(words, offset(parent1), words, offset(parent2),
+                                           offspring.words, offspring.offset(child1),
+                                           offspring.words, offspring.offset(child2),
+                                           stride, crossoverPoint);
+    }
+    
+    @Override
+    public void maskedCrossoverInto(int parent1, int parent2, long[] mask,
+                                    Population children, int child1, int child2) {
+        PopulationMatrix offspring = (PopulationMatrix) children;
+        BitKernels.ACTIVE.maskedCrossover(words, offset(parent1), words, offset(parent2), mask,
+                                          offspring.words, offspring.offset(child1),
+                                          offspring.words, offspring.offset(child2), stride);
+    }
+    
+    @Override
+    public void writeRow(int row, LongBuffer out) {
+        out.put(words, offset(row), stride);
+    }
+    
+    @Override
+    public void readRow(int row, LongBuffer in) {
+        in.get(words, offset(row), stride);
+    }
+    
+    @Override
+    public void writeRows(int from, int to, LongBuffer out) {
+        out.put(words, offset(from), (to - from) * stride);
+    }
+    
+    @Override
+    public void readRows(int from, int to, LongBuffer in) {
+        in.get(words, offset(from), (to - from) * stride);
+    }
+}
@@ -0,0 +1,37 @@
+// Random stream helpers for the Java One-Max GA
+// Derives independent per-worker streams from any java.util.random.RandomGenerator
+
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+public final class RandomStreams {
+    
+    private RandomStreams() {
+    }
+    
+    /**
+     * Derive one independent stream from the source generator.
+     * Splittable generators are split and jumpable generators jump ahead;
+     * anything else (such as java.util.Random) seeds a new SplittableRandom.
+     */
+    public static RandomGenerator split(RandomGenerator source) {
+        if (source instanceof RandomGenerator.SplittableGenerator splittable) {
+            return splittable.split();
+        }
+        if (source instanceof RandomGenerator.JumpableGenerator jumpable) {
+            return jumpable.copyAndJump();
+        }
+        return new SplittableRandom(source.nextLong());
+    }
+    
+    /**
+     * Derive the given number of independent streams from the source generator.
+     */
+    public static RandomGenerator[] split(RandomGenerator source, int count) {
+        RandomGenerator[] streams = new RandomGenerator[count];
+        for (int i = 0; i < count; i++) {
+            streams[i] = split(source);
+        }
+        return streams;
+    }
+}
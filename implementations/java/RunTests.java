@@ -3,38 +3,366 @@
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 public class RunTests {
     
+    // Number of most recent warmup runs used to judge steady state
+    private static final int WARMUP_WINDOW = 10;
+    
+    /**
+     * Run discarded warmup iterations until the JIT has settled: stop after
+     * maxRuns, or earlier once the coefficient of variation of the last
+     * WARMUP_WINDOW runs drops below cvThreshold. Returns the warmup times.
+     */
+    public static List<Double> warmup(int maxRuns, double cvThreshold, GAConfig config) {
+        System.out.println("Warming up (at most " + maxRuns + " runs, CV threshold "
+                + String.format("%.3f", cvThreshold) + ")...");
+        
+        List<Double> times = new ArrayList<>();
+        double cv = Double.NaN;
+        
+        for (int i = 0; i < maxRuns; i++) {
+            times.add(OneMaxGA.benchmarkSingleRun(config));
+            if (times.size() >= WARMUP_WINDOW) {
+                cv = coefficientOfVariation(times.subList(times.size() - WARMUP_WINDOW, times.size()));
+                if (cv < cvThreshold) {
+                    break;
+                }
+            }
+        }
+        
+        System.out.println("Discarded " + times.size() + " warmup runs (final CV "
+                + String.format("%.3f", cv) + ")");
+        System.out.println("Cold start: first run " + String.format("%.3f", times.get(0))
+                + " ms, warmup mean " + String.format("%.3f", mean(times)) + " ms");
+        
+        return times;
+    }
+    
+    private static double mean(List<Double> times) {
+        double sum = 0;
+        for (double time : times) sum += time;
+        return sum / times.size();
+    }
+    
+    private static double coefficientOfVariation(List<Double> times) {
+        double mean = mean(times);
+        double variance = 0;
+        for (double time : times) variance += (time - mean) * (time - mean);
+        return Math.sqrt(variance / (times.size() - 1)) / mean;
+    }
+    
     /**
      * Run the GA benchmark multiple times and collect results.
      */
     public static List<Double> runTests(int numRuns) {
-        System.out.println("Java One-Max GA Performance Test");
+        return runTests(numRuns, GAConfig.defaults());
+    }
+    
+    /**
+     * Run the GA benchmark multiple times with the given configuration.
+     */
+    public static List<Double> runTests(int numRuns, GAConfig config) {
+        System.out.println("Java One-Max GA Performance Test ("
+                + config.representation().name().toLowerCase() + " genes)");
         System.out.println("Running " + numRuns + " tests...");
         
         List<Double> times = new ArrayList<>();
+        List<GAResult> results = new ArrayList<>();
         
         for (int i = 0; i < numRuns; i++) {
-            double elapsed = OneMaxGA.benchmarkSingleRun();
+            GAResult result = OneMaxGA.runGA(config);
+            double elapsed = result.elapsedMillis();
+            results.add(result);
             times.add(elapsed);
             System.out.print("Run " + (i + 1) + ": " + String.format("%.3f", elapsed) + " ms\r");
             System.out.flush();
         }
         
         System.out.println("\nCompleted " + numRuns + " runs");
+        printThroughput(results);
+        printFitnessCache(results, config);
+        printLatencies(results);
+        
+        printCsv(times);
+        
+        return times;
+    }
+    
+    /**
+     * Run independent GA instances concurrently on a fixed pool of threads.
+     * Each run owns its engine and RNG, so runs share no state; times are
+     * reported in submission order so the CSV matches the serial layout.
+     */
+    public static List<Double> runTestsConcurrent(int numRuns, GAConfig config, int threads) {
+        System.out.println("Java One-Max GA Performance Test (" + config.representation().name().toLowerCase()
+                + " genes, " + threads + " threads)");
+        System.out.println("Running " + numRuns + " tests...");
         
-        // Output results in CSV format
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Double> times = new ArrayList<>();
+        List<GAResult> results = new ArrayList<>();
+        long startTime = System.nanoTime();
+        try {
+            List<Future<GAResult>> runs = new ArrayList<>();
+            for (int i = 0; i < numRuns; i++) {
+                runs.add(executor.submit(() -> OneMaxGA.runGA(config)));
+            }
+            for (Future<GAResult> run : runs) {
+                GAResult result = run.get();
+                results.add(result);
+                times.add(result.elapsedMillis());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for GA runs", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("GA run failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        double wallSeconds = (System.nanoTime() - startTime) / 1_000_000_000.0;
+        
+        System.out.println("Completed " + numRuns + " runs in " + String.format("%.3f", wallSeconds)
+                + " s (" + String.format("%.1f", numRuns / wallSeconds) + " runs/s)");
+        printThroughput(results);
+        printFitnessCache(results, config);
+        printLatencies(results);
+        
+        printCsv(times);
+        
+        return times;
+    }
+    
+    /**
+     * Print fitness evaluations per second of run time and mean generations
+     * over all runs.
+     */
+    private static void printThroughput(List<GAResult> results) {
+        long evaluations = 0;
+        long nanos = 0;
+        long generations = 0;
+        for (GAResult result : results) {
+            evaluations += result.evaluations();
+            nanos += result.elapsedNanos();
+            generations += result.generations();
+        }
+        System.out.println("Throughput: " + String.format("%.0f", evaluations * 1_000_000_000.0 / nanos)
+                + " evaluations/s, mean " + String.format("%.1f", (double) generations / results.size())
+                + " generations");
+    }
+    
+    /**
+     * Print the fitness cache hit rate over all runs when a cache is configured.
+     */
+    private static void printFitnessCache(List<GAResult> results, GAConfig config) {
+        if (config.fitnessCacheSize() == 0) {
+            return;
+        }
+        long hits = 0;
+        long misses = 0;
+        for (GAResult result : results) {
+            hits += result.cacheHits();
+            misses += result.cacheMisses();
+        }
+        long lookups = hits + misses;
+        System.out.println("Fitness cache: " + String.format("%.1f", lookups > 0 ? 100.0 * hits / lookups : 0.0)
+                + "% hit rate (" + hits + " hits, " + misses + " misses)");
+    }
+    
+    /**
+     * Print tail latencies of whole runs and of single generations, from
+     * fixed-memory histograms. A generation spans evaluation and breeding;
+     * the first also includes initialization. Untraced runs (islands) and
+     * generations beyond --trace contribute to run latencies only.
+     */
+    private static void printLatencies(List<GAResult> results) {
+        LatencyHistogram runs = LatencyHistogram.ofNanos();
+        LatencyHistogram generations = LatencyHistogram.ofNanos();
+        for (GAResult result : results) {
+            runs.record(result.elapsedNanos());
+            long previous = 0;
+            for (long nanos : result.nanosByGeneration()) {
+                // Zero marks generations before a resumed run's first
+                if (nanos == 0) continue;
+                generations.record(nanos - previous);
+                previous = nanos;
+            }
+        }
+        System.out.println("Run latency: " + runs.summary("ms", 1_000_000.0));
+        if (generations.totalCount() > 0) {
+            System.out.println("Generation latency: " + generations.summary("us", 1_000.0));
+        }
+    }
+    
+    /**
+     * Output results in CSV format.
+     */
+    private static void printCsv(List<Double> times) {
         String timesStr = times.stream()
                 .map(String::valueOf)
                 .collect(Collectors.joining(","));
         System.out.println("java," + timesStr);
-        
-        return times;
     }
     
+    /**
+     * Apply the GA configuration argument at args[i] to the builder and
+     * return the index of its last token. Shared with DistributedIslands,
+     * which forwards the same flags to its island processes.
+     */
+    static int parseConfigArgument(String[] args, int i, GAConfig.Builder builder) {
+        switch (args[i]) {
+            case "--population":
+                builder.populationSize(Integer.parseInt(args[++i]));
+                break;
+            case "--length":
+                builder.chromosomeLength(Integer.parseInt(args[++i]));
+                break;
+            case "--generations":
+                builder.maxGenerations(Integer.parseInt(args[++i]));
+                break;
+            case "--crossover-rate":
+                builder.crossoverRate(Double.parseDouble(args[++i]));
+                break;
+            case "--mutation-rate":
+                builder.mutationRate(Double.parseDouble(args[++i]));
+                break;
+            case "--tournament":
+                builder.tournamentSize(Integer.parseInt(args[++i]));
+                break;
+            case "--mutation":
+                builder.mutationMode(OneMaxGA.MutationMode.valueOf(args[++i].toUpperCase()));
+                break;
+            case "--crossover":
+                builder.crossoverMode(OneMaxGA.CrossoverMode.valueOf(args[++i].toUpperCase()));
+                break;
+            case "--crossover-points":
+                builder.crossoverPoints(Integer.parseInt(args[++i]));
+                break;
+            case "--fitness-cache":
+                builder.fitnessCacheSize(Integer.parseInt(args[++i]));
+                break;
+            case "--incremental":
+                builder.incrementalFitness(true);
+                break;
+            case "--verify-interval":
+                builder.fitnessVerifyInterval(Integer.parseInt(args[++i]));
+                break;
+            case "--islands":
+                builder.islands(Integer.parseInt(args[++i]));
+                break;
+            case "--topology":
+                builder.topology(IslandModel.Topology.valueOf(args[++i].toUpperCase()));
+                break;
+            case "--migration-interval":
+                builder.migrationInterval(Integer.parseInt(args[++i]));
+                break;
+            case "--migrants":
+                builder.migrants(Integer.parseInt(args[++i]));
+                break;
+            case "--eval-threads":
+                builder.evaluationThreads(Integer.parseInt(args[++i]));
+                break;
+            case "--eval-threshold":
+                builder.evaluationThreshold(Integer.parseInt(args[++i]));
+                break;
+            case "--breeding-workers":
+                builder.breedingWorkers(Integer.parseInt(args[++i]));
+                break;
+            case "--trace":
+                builder.traceCapacity(Integer.parseInt(args[++i]));
+                break;
+            case "--jmx":
+                builder.metrics(true);
+                break;
+            case "--rng":
+                builder.randomAlgorithm(args[++i]);
+                break;
+            case "--seed":
+                builder.seed(Long.parseLong(args[++i]));
+                break;
+            default:
+                if (args[i].startsWith("--")) {
+                    throw new IllegalArgumentException("Unknown argument: " + args[i]);
+                }
+                // A bare argument selects the representation, e.g. "boolean" for the reference path
+                builder.representation(OneMaxGA.Representation.valueOf(args[i].toUpperCase()));
+        }
+        return i;
+    }
+    
+    /**
+     * Usage: java RunTests [boolean|packed|matrix|off_heap] [--runs N] [--threads N]
+     *                       [--warmup N] [--cv-threshold X]
+     *                       [--population N] [--length N] [--generations N]
+     *                       [--crossover-rate X] [--mutation-rate X] [--tournament N]
+     *                       [--mutation per_gene|geometric]
+     *                       [--crossover single_point|two_point|k_point|uniform]
+     *                       [--crossover-points N] [--fitness-cache N]
+     *                       [--incremental] [--verify-interval N]
+     *                       [--islands N] [--topology ring|fully_connected]
+     *                       [--migration-interval N] [--migrants N]
+     *                       [--eval-threads N] [--eval-threshold N]
+     *                       [--breeding-workers N] [--trace N] [--jmx]
+     *                       [--rng ALGORITHM] [--seed N]
+     * Without --threads the runs execute serially on the main thread.
+     * --eval-threads scores each run's population on a ForkJoinPool in
+     * slices of at most --eval-threshold individuals; --breeding-workers
+     * breeds it on the same pool in that many fixed slices.
+     * With --warmup, up to N discarded runs precede the measured runs and both
+     * cold-start and steady-state times are reported.
+     * With --seed every run starts from the same seed and is reproducible.
+     */
     public static void main(String[] args) {
-        runTests(25);
+        GAConfig.Builder builder = GAConfig.builder();
+        int numRuns = 25;
+        int threads = 0;
+        int warmupRuns = 0;
+        double cvThreshold = 0.05;
+        
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--runs":
+                    numRuns = Integer.parseInt(args[++i]);
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(args[++i]);
+                    break;
+                case "--warmup":
+                    warmupRuns = Integer.parseInt(args[++i]);
+                    break;
+                case "--cv-threshold":
+                    cvThreshold = Double.parseDouble(args[++i]);
+                    break;
+                default:
+                    i = parseConfigArgument(args, i, builder);
+            }
+        }
+        
+        GAConfig config = builder.build();
+        if (args.length > 0) {
+            System.out.println("Configuration: " + config);
+        }
+        
+        if (warmupRuns > 0) {
+            warmup(warmupRuns, cvThreshold, config);
+        }
+        
+        List<Double> times;
+        if (threads > 0) {
+            times = runTestsConcurrent(numRuns, config, threads);
+        } else {
+            times = runTests(numRuns, config);
+        }
+        
+        if (warmupRuns > 0) {
+            System.out.println("Steady state: mean " + String.format("%.3f", mean(times)) + " ms, CV "
+                    + String.format("%.3f", coefficientOfVariation(times)));
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,180 @@
+// Off-heap population storage for the Java One-Max GA
+// Optional: genomes live in native memory owned by an Arena, so the GC sees a
+// handful of objects however large the population. Needs the Foreign Function
+// & Memory API, final in JDK 22 and a preview in JDK 21:
+//   javac -cp . -d . foreign/OffHeapPopulation.java
+//   java RunTests off_heap
+// On JDK 21 also pass --enable-preview --release 21 to javac and --enable-preview to java.
+// Population.create falls back to PopulationMatrix when this class cannot be loaded.
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.LongBuffer;
+import java.util.random.RandomGenerator;
+
+public final class OffHeapPopulation extends Population {
+    // Gene g of row r is bit (g & 63) of the long at index r * stride + (g >>> 6)
+    private final long stride;
+    private final Arena arena;
+    private final MemorySegment words;
+    
+    // Valid bits of each row's last word; bits past the chromosome stay zero
+    private final long tailMask;
+    
+    public OffHeapPopulation(int rows, int length) {
+        super(rows, length);
+        this.stride = OneMaxGA.Individual.wordCount(length);
+        int tailBits = length & 63;
+        this.tailMask = tailBits == 0 ? -1L : (1L << tailBits) - 1;
+        // Shared rather than confined, since parallel evaluation and breeding
+        // access the rows from pool threads; allocated memory is zeroed
+        this.arena = Arena.ofShared();
+        this.words = arena.allocate(rows * stride * Long.BYTES, Long.BYTES);
+    }
+    
+    private long offset(int row) {
+        return row * stride;
+    }
+    
+    private long word(long index) {
+        return words.getAtIndex(ValueLayout.JAVA_LONG, index);
+    }
+    
+    private void setWord(long index, long value) {
+        words.setAtIndex(ValueLayout.JAVA_LONG, index, value);
+    }
+    
+    @Override
+    public void randomize(int row, RandomGenerator random) {
+        long base = offset(row);
+        for (long w = base; w < base + stride; w++) {
+            setWord(w, random.nextLong());
+        }
+        setWord(base + stride - 1, word(base + stride - 1) & tailMask);
+    }
+    
+    @Override
+    public boolean getGene(int row, int gene) {
+        return (word(offset(row) + (gene >>> 6)) & (1L << gene)) != 0;
+    }
+    
+    @Override
+    public boolean flipGene(int row, int gene) {
+        long index = offset(row) + (gene >>> 6);
+        long flipped = word(index) ^ (1L << gene);
+        setWord(index, flipped);
+        return (flipped & (1L << gene)) != 0;
+    }
+    
+    @Override
+    public int countOnes(int row) {
+        long base = offset(row);
+        int count = 0;
+        for (long w = base; w < base + stride; w++) {
+            count += Long.bitCount(word(w));
+        }
+        return count;
+    }
+    
+    @Override
+    public int countOnes(int row, int from, int to) {
+        if (from >= to) return 0;
+        long firstWord = offset(row) + (from >>> 6);
+        long lastWord = offset(row) + ((to - 1) >>> 6);
+        long firstMask = -1L << from;
+        long lastMask = -1L >>> (63 - ((to - 1) & 63));
+        if (firstWord == lastWord) {
+            return Long.bitCount(word(firstWord) & firstMask & lastMask);
+        }
+        int count = Long.bitCount(word(firstWord) & firstMask) + Long.bitCount(word(lastWord) & lastMask);
+        for (long w = firstWord + 1; w < lastWord; w++) {
+            count += Long.bitCount(word(w));
+        }
+        return count;
+    }
+    
+    @Override
+    public long genomeHash(int row) {
+        long base = offset(row);
+        long hash = 0;
+        for (long w = base; w < base + stride; w++) {
+            hash = OneMaxGA.Individual.mixWord(hash, word(w));
+        }
+        return OneMaxGA.Individual.finishHash(hash, length());
+    }
+    
+    @Override
+    public void copyRow(int row, Population source, int sourceRow) {
+        OffHeapPopulation population = (OffHeapPopulation) source;
+        MemorySegment.copy(population.words, population.offset(sourceRow) * Long.BYTES,
+                           words, offset(row) * Long.BYTES, stride * Long.BYTES);
+    }
+    
+    @Override
+    public void crossoverInto(int parent1, int parent2, int crossoverPoint,
+                              Population children, int child1, int child2) {
+        MemorySegment offspring = ((OffHeapPopulation) children).words;
+        long base1 = offset(parent1);
+        long base2 = offset(parent2);
+        long childBase1 = offset(child1);
+        long childBase2 = offset(child2);
+        
+        // Whole words on either side of the word holding the crossover point
+        long splitWord = crossoverPoint >>> 6;
+        long headBytes = splitWord * Long.BYTES;
+        long tailBytes = (stride - splitWord) * Long.BYTES;
+        MemorySegment.copy(words, base1 * Long.BYTES, offspring, childBase1 * Long.BYTES, headBytes);
+        MemorySegment.copy(words, base2 * Long.BYTES, offspring, childBase2 * Long.BYTES, headBytes);
+        MemorySegment.copy(words, base2 * Long.BYTES + headBytes, offspring, childBase1 * Long.BYTES + headBytes, tailBytes);
+        MemorySegment.copy(words, base1 * Long.BYTES + headBytes, offspring, childBase2 * Long.BYTES + headBytes, tailBytes);
+        
+        // Blend the split word; a word-aligned point yields an empty mask
+        long lowMask = (1L << crossoverPoint) - 1;
+        long word1 = word(base1 + splitWord);
+        long word2 = word(base2 + splitWord);
+        offspring.setAtIndex(ValueLayout.JAVA_LONG, childBase1 + splitWord, (word1 & lowMask) | (word2 & ~lowMask));
+        offspring.setAtIndex(ValueLayout.JAVA_LONG, childBase2 + splitWord, (word2 & lowMask) | (word1 & ~lowMask));
+    }
+    
+    @Override
+    public void maskedCrossoverInto(int parent1, int parent2, long[] mask,
+                                    Population children, int child1, int child2) {
+        MemorySegment offspring = ((OffHeapPopulation) children).words;
+        long base1 = offset(parent1);
+        long base2 = offset(parent2);
+        long childBase1 = offset(child1);
+        long childBase2 = offset(child2);
+        for (long w = 0; w < stride; w++) {
+            long word1 = word(base1 + w);
+            long word2 = word(base2 + w);
+            long m = mask[(int) w];
+            offspring.setAtIndex(ValueLayout.JAVA_LONG, childBase1 + w, (word1 & m) | (word2 & ~m));
+            offspring.setAtIndex(ValueLayout.JAVA_LONG, childBase2 + w, (word2 & m) | (word1 & ~m));
+        }
+    }
+    
+    @Override
+    public void writeRow(int row, LongBuffer out) {
+        long base = offset(row);
+        for (long w = base; w < base + stride; w++) {
+            out.put(word(w));
+        }
+    }
+    
+    @Override
+    public void readRow(int row, LongBuffer in) {
+        long base = offset(row);
+        for (long w = base; w < base + stride; w++) {
+            setWord(w, in.get());
+        }
+    }
+    
+    /**
+     * Free the native memory; the population must not be used afterwards.
+     */
+    @Override
+    public void close() {
+        arena.close();
+    }
+}
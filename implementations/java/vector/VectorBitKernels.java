@@ -0,0 +1,72 @@
+// Vector API bit kernels for packed chromosomes in the Java One-Max GA
+// Optional: compile and run with the incubator module enabled, e.g.
+//   javac --add-modules jdk.incubator.vector -cp . -d . vector/VectorBitKernels.java
+//   java --add-modules jdk.incubator.vector -Dga.kernels=vector RunTests
+// BitKernels falls back to its scalar kernels when this class cannot be loaded.
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+public final class VectorBitKernels implements BitKernels {
+    private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+    
+    public VectorBitKernels() {
+    }
+    
+    /**
+     * Per-lane population count using the SWAR bit-slicing steps; the lane
+     * operators available in JDK 17 have no BIT_COUNT, and the shift/add
+     * folding at the end avoids 64-bit lane multiplies, which AVX2 lacks.
+     */
+    private static LongVector laneBitCount(LongVector x) {
+        x = x.sub(x.lanewise(VectorOperators.LSHR, 1).and(0x5555555555555555L));
+        x = x.and(0x3333333333333333L).add(x.lanewise(VectorOperators.LSHR, 2).and(0x3333333333333333L));
+        x = x.add(x.lanewise(VectorOperators.LSHR, 4)).and(0x0F0F0F0F0F0F0F0FL);
+        x = x.add(x.lanewise(VectorOperators.LSHR, 8));
+        x = x.add(x.lanewise(VectorOperators.LSHR, 16));
+        x = x.add(x.lanewise(VectorOperators.LSHR, 32));
+        return x.and(0x7FL);
+    }
+    
+    @Override
+    public int popcount(long[] words, int from, int to) {
+        int w = from;
+        int upper = from + SPECIES.loopBound(to - from);
+        LongVector counts = LongVector.zero(SPECIES);
+        for (; w < upper; w += SPECIES.length()) {
+            counts = counts.add(laneBitCount(LongVector.fromArray(SPECIES, words, w)));
+        }
+        int count = (int) counts.reduceLanes(VectorOperators.ADD);
+        for (; w < to; w++) {
+            count += Long.bitCount(words[w]);
+        }
+        return count;
+    }
+    
+    @Override
+    public void maskedCrossover(long[] parent1, int offset1, long[] parent2, int offset2, long[] mask,
+                                long[] child1, int childOffset1, long[] child2, int childOffset2, int count) {
+        int w = 0;
+        int upper = SPECIES.loopBound(count);
+        for (; w < upper; w += SPECIES.length()) {
+            LongVector word1 = LongVector.fromArray(SPECIES, parent1, offset1 + w);
+            LongVector word2 = LongVector.fromArray(SPECIES, parent2, offset2 + w);
+            LongVector m = LongVector.fromArray(SPECIES, mask, w);
+            word1.and(m).or(word2.lanewise(VectorOperators.AND_NOT, m)).intoArray(child1, childOffset1 + w);
+            word2.and(m).or(word1.lanewise(VectorOperators.AND_NOT, m)).intoArray(child2, childOffset2 + w);
+        }
+        for (; w < count; w++) {
+            long scalar1 = parent1[offset1 + w];
+            long scalar2 = parent2[offset2 + w];
+            long m = mask[w];
+            child1[childOffset1 + w] = (scalar1 & m) | (scalar2 & ~m);
+            child2[childOffset2 + w] = (scalar2 & m) | (scalar1 & ~m);
+        }
+    }
+    
+    @Override
+    public String name() {
+        return "vector (" + SPECIES.vectorBitSize() + "-bit)";
+    }
+}